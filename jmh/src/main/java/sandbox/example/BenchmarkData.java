@@ -0,0 +1,106 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds the fixtures shared by the benchmarks in this module. Polluted elements are the same Integer
+ * value that {@link TypeErasureDemonstration#neverDoThis()} injects, spread evenly through the list so
+ * that a ratio of 0.5 pollutes every other element.
+ */
+final class BenchmarkData {
+
+  private BenchmarkData()
+  {
+  }
+
+  /**
+   * Creates a demonstration instance whose strings collection holds the requested number of elements. The
+   * instance discards its explanations, so that a benchmark never measures console output.
+   * @param size the number of elements to add to the strings collection
+   * @param pollutedRatio the fraction of elements, between 0 and 1, that are Integer type values
+   * @return a demonstration instance with a populated strings collection
+   */
+  static TypeErasureDemonstration demonstration(final int size, final double pollutedRatio)
+  {
+    final TypeErasureDemonstration example = new TypeErasureDemonstration(new ArrayList<>(), OutputSink.DISCARD);
+    fill(example.strings, size, pollutedRatio);
+    return example;
+  }
+
+  /**
+   * Creates an empty strings collection of the implementation that a benchmark names in its
+   * {@code implementation} parameter. A MappedStringList has to be closed by the benchmark.
+   * @param implementation the simple name of the list class, or {@code checkedList} and
+   *   {@code synchronizedList} for an ArrayList wrapped by Collections, or
+   *   {@code Latin1StringPoolUncompressed} for a pool without prefix compression
+   * @return the empty list
+   */
+  static List<String> newList(final String implementation)
+  {
+    switch (implementation) {
+      case "ArrayList":
+        return new ArrayList<>();
+      case "checkedList":
+        return Collections.checkedList(new ArrayList<>(), String.class);
+      case "synchronizedList":
+        return Collections.synchronizedList(new ArrayList<>());
+      case "CopyOnWriteArrayList":
+        return new CopyOnWriteArrayList<>();
+      case "CheckedStringList":
+        return new CheckedStringList();
+      case "HybridStringList":
+        return new HybridStringList<>();
+      case "MappedStringList":
+        try {
+          return new MappedStringList();
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      case "Latin1StringPool":
+        return new Latin1StringPool();
+      case "Latin1StringPoolUncompressed":
+        return new Latin1StringPool(false);
+      case "ConcurrentAppendList":
+        return new ConcurrentAppendList<>();
+      case "SnapshotList":
+        return new SnapshotList<>();
+      default:
+        throw new IllegalStateException("Unknown implementation: " + implementation);
+    }
+  }
+
+  /**
+   * Adds the requested number of elements to the given list, polluting it through its raw type.
+   * @param strings the list to fill
+   * @param size the number of elements to add
+   * @param pollutedRatio the fraction of elements, between 0 and 1, that are Integer type values
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static void fill(final List<String> strings, final int size, final double pollutedRatio)
+  {
+    final List raw = strings;
+    for (int i = 0; i < size; i++) {
+      if (isPolluted(i, pollutedRatio)) {
+        raw.add(5);
+      } else {
+        raw.add("string value " + (i + 1));
+      }
+    }
+  }
+
+  /**
+   * Tells whether the element at the given position is polluted for the given ratio.
+   * @param index the position of the element
+   * @param pollutedRatio the fraction of elements, between 0 and 1, that are Integer type values
+   * @return true when the element at the given position should be an Integer type value
+   */
+  static boolean isPolluted(final int index, final double pollutedRatio)
+  {
+    return (long) ((index + 1) * pollutedRatio) > (long) (index * pollutedRatio);
+  }
+}
@@ -0,0 +1,69 @@
+package sandbox.example;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the add and iterate throughput of {@link CheckedStringList} with an unchecked ArrayList and
+ * with an ArrayList wrapped by {@link Collections#checkedList(List, Class)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckedListBenchmark {
+
+  @Param({"ArrayList", "checkedList", "CheckedStringList"})
+  String implementation;
+
+  @Param({"1000", "100000"})
+  int size;
+
+  String[] values;
+
+  List<String> populated;
+
+  @Setup
+  public void setUp()
+  {
+    this.values = new String[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.values[i] = "string value " + (i + 1);
+    }
+    this.populated = this.add();
+  }
+
+  @Benchmark
+  public List<String> add()
+  {
+    final List<String> list = BenchmarkData.newList(this.implementation);
+    for (final String value : this.values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+  @Benchmark
+  public int iterate()
+  {
+    int length = 0;
+    for (final String value : this.populated) {
+      length += value.length();
+    }
+    return length;
+  }
+}
@@ -0,0 +1,81 @@
+package sandbox.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes a number of producer threads to fill an empty {@link ConcurrentAppendList},
+ * or a synchronized ArrayList, with {@value #ELEMENTS} elements between them. Every producer adds its
+ * share in a tight loop, so with more than one producer on more than one core they contend for the list
+ * all the time. The producers run on a fixed pool that is started once per trial, and the list is checked
+ * to hold every element afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentAppendBenchmark {
+
+  static final int ELEMENTS = 1 << 20;
+
+  @Param({"synchronizedList", "ConcurrentAppendList"})
+  String implementation;
+
+  @Param({"1", "4", "16"})
+  int producers;
+
+  ExecutorService pool;
+
+  @Setup
+  public void setUp()
+  {
+    this.pool = Executors.newFixedThreadPool(this.producers);
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    this.pool.shutdown();
+  }
+
+  @Benchmark
+  public List<String> fill() throws InterruptedException, ExecutionException
+  {
+    final List<String> strings = BenchmarkData.newList(this.implementation);
+    final int share = ELEMENTS / this.producers;
+    final List<Future<?>> running = new ArrayList<>(this.producers);
+    for (int i = 0; i < this.producers; i++) {
+      running.add(this.pool.submit(() -> {
+        for (int j = 0; j < share; j++) {
+          strings.add("string value");
+        }
+      }));
+    }
+    for (final Future<?> producer : running) {
+      producer.get();
+    }
+    if (strings.size() != share * this.producers) {
+      throw new IllegalStateException("Lost elements: " + strings.size());
+    }
+    return strings;
+  }
+}
@@ -0,0 +1,94 @@
+package sandbox.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the failure paths of the demonstration with {@link ErasureDiagnostics}. The failing render is
+ * measured with diagnostics both disabled and enabled; the failing invocations are measured only with
+ * diagnostics enabled, because otherwise every call formats its explanation, even though the benchmark
+ * instances discard it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiagnosticsBenchmark {
+
+  @State(Scope.Thread)
+  public static class Render {
+
+    @Param({"false", "true"})
+    boolean diagnostics;
+
+    TypeErasureDemonstration example;
+
+    @Setup
+    public void setUp()
+    {
+      ErasureDiagnostics.setEnabled(this.diagnostics);
+      this.example = BenchmarkData.demonstration(5, 0.5);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+      ErasureDiagnostics.setEnabled(false);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Invocation {
+
+    TypeErasureDemonstration example;
+
+    @Setup
+    public void setUp()
+    {
+      ErasureDiagnostics.setEnabled(true);
+      this.example = BenchmarkData.demonstration(5, 0.5);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+      ErasureDiagnostics.setEnabled(false);
+    }
+  }
+
+  @Benchmark
+  public Object failingRender(final Render state)
+  {
+    try {
+      return state.example.getReverseStringsValue(PollutionPolicy.FAIL);
+    } catch (ClassCastException ex) {
+      return ex;
+    }
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration failingReflectiveInvocation(final Invocation state)
+  {
+    state.example.dontDoThisEither();
+    return state.example;
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration failingLinkedInvocation(final Invocation state)
+  {
+    state.example.dontDoThisEitherWithCache();
+    return state.example;
+  }
+}
@@ -0,0 +1,101 @@
+package sandbox.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential heap pollution scan with the fork/join scan on pools of increasing size. The
+ * synthetic graph is a root with independent subgraphs, each holding a list of initialized
+ * demonstration instances, so every instance carries the Integer type value injected by
+ * {@link TypeErasureDemonstration#neverDoThis()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class HeapPollutionScanBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Data {
+
+    @Param({"100000", "1000000"})
+    int instances;
+
+    Graph root;
+
+    @Setup
+    public void setUp()
+    {
+      this.root = new Graph();
+      final int subgraphCount = 64;
+      for (int i = 0; i < subgraphCount; i++) {
+        final Graph subgraph = new Graph();
+        for (int j = i; j < this.instances; j += subgraphCount) {
+          final TypeErasureDemonstration example = new TypeErasureDemonstration();
+          example.initializeStrings();
+          subgraph.demonstrations.add(example);
+        }
+        this.root.subgraphs.add(subgraph);
+      }
+    }
+  }
+
+  /**
+   * The pool of the parallel scan, in a state of its own so that the sequential scan is not measured once
+   * for every pool size.
+   */
+  @State(Scope.Benchmark)
+  public static class Pool {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int threads;
+
+    ForkJoinPool pool;
+
+    @Setup
+    public void setUp()
+    {
+      this.pool = new ForkJoinPool(this.threads);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+      this.pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public int sequential(final Data data)
+  {
+    return HeapPollutionScanner.scan(data.root).size();
+  }
+
+  @Benchmark
+  public int parallel(final Data data, final Pool pool)
+  {
+    return ParallelHeapPollutionScanner.scan(data.root, pool.pool).size();
+  }
+
+  static final class Graph {
+
+    final List<Graph> subgraphs = new ArrayList<>();
+
+    final List<TypeErasureDemonstration> demonstrations = new ArrayList<>();
+  }
+}
@@ -0,0 +1,87 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares filling and rendering a polluted ArrayList with a {@link HybridStringList} that keeps the
+ * injected Integer type values as ints. The allocation of {@code fill} includes the Integer that the raw
+ * {@code add(Object)} call boxes for both lists; the ArrayList keeps that box reachable, while the hybrid
+ * list unboxes it and lets it die young. The renderings show the cost of reading the boxes back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class HybridListBenchmark {
+
+  @Param({"ArrayList", "HybridStringList"})
+  String implementation;
+
+  @Param({"1000", "1000000"})
+  int size;
+
+  @Param({"0.1", "0.5"})
+  double pollutedRatio;
+
+  String[] strings;
+
+  List<String> populated;
+
+  @Setup
+  public void setUp()
+  {
+    this.strings = new String[this.size];
+    for (int i = 0; i < this.size; i++) {
+      this.strings[i] = "string value " + (i + 1);
+    }
+    this.populated = this.fill();
+  }
+
+  /**
+   * Injects distinct values, so that the ArrayList cannot share the cached boxes of small Integers.
+   */
+  @Benchmark
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public List<String> fill()
+  {
+    final List<String> list = BenchmarkData.newList(this.implementation);
+    final List raw = list;
+    for (int i = 0; i < this.size; i++) {
+      if (BenchmarkData.isPolluted(i, this.pollutedRatio)) {
+        raw.add(1_000 + i);
+      } else {
+        raw.add(this.strings[i]);
+      }
+    }
+    return list;
+  }
+
+  @Benchmark
+  public String renderReverseSubstituting()
+  {
+    return StringsRenderer.renderReverse(this.populated, PollutionPolicy.SUBSTITUTE, (value, index) -> { });
+  }
+
+  @Benchmark
+  public int writeStringsValue() throws IOException
+  {
+    final StringBuilder out = new StringBuilder();
+    StringsRenderer.writeStringsValue(this.populated, out);
+    return out.length();
+  }
+}
@@ -0,0 +1,80 @@
+package sandbox.example;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-call reflective lookup and invocation done by
+ * {@link TypeErasureDemonstration#dontDoThisEither()} with the invokers linked by {@link InvokerCache},
+ * for a String receiver and for the Integer receiver that the demonstration injects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InvocationBenchmark {
+
+  Object stringReceiver;
+
+  Object integerReceiver;
+
+  InvokerCache.Invoker genericInvoker;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException
+  {
+    this.stringReceiver = "string value 4";
+    this.integerReceiver = 5;
+    this.genericInvoker = InvokerCache.invoker(String.class, "length", MethodType.methodType(int.class));
+  }
+
+  @Benchmark
+  public Object reflectiveString() throws ReflectiveOperationException
+  {
+    final Method lengthMethod = String.class.getMethod("length");
+    return lengthMethod.invoke(this.stringReceiver);
+  }
+
+  @Benchmark
+  public Object genericInvokerString() throws Throwable
+  {
+    return this.genericInvoker.invoke(this.stringReceiver);
+  }
+
+  @Benchmark
+  public int intInvokerString()
+  {
+    return InvokerCache.STRING_LENGTH.applyAsInt(this.stringReceiver);
+  }
+
+  @Benchmark
+  public Object reflectiveInteger() throws ReflectiveOperationException
+  {
+    try {
+      final Method lengthMethod = String.class.getMethod("length");
+      return lengthMethod.invoke(this.integerReceiver);
+    } catch (IllegalArgumentException ex) {
+      return ex;
+    }
+  }
+
+  @Benchmark
+  public int intInvokerInteger()
+  {
+    final InvokerCache.IntInvoker lengthInvoker = InvokerCache.STRING_LENGTH;
+    return lengthInvoker.accepts(this.integerReceiver) ? lengthInvoker.applyAsInt(this.integerReceiver) : -1;
+  }
+}
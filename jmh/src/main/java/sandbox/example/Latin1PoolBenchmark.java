@@ -0,0 +1,72 @@
+package sandbox.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a strings collection in an ArrayList with one in a {@link Latin1StringPool}, with and without
+ * prefix compression. The setup prints the heap in use once the collection is populated, and the
+ * benchmarks render the collection through the paths that read the slabs of the pool directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class Latin1PoolBenchmark {
+
+  @Param({"ArrayList", "Latin1StringPool", "Latin1StringPoolUncompressed"})
+  String implementation;
+
+  @Param({"1000000"})
+  int size;
+
+  List<String> strings;
+
+  @Setup
+  public void setUp()
+  {
+    this.strings = BenchmarkData.newList(this.implementation);
+    BenchmarkData.fill(this.strings, this.size, 0.0);
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    System.out.println();
+    System.out.println("Heap used with " + this.size + " elements in a " + this.implementation + ": "
+      + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1024 + " KiB");
+  }
+
+  @Benchmark
+  public String renderReverse()
+  {
+    return StringsRenderer.renderReverse(this.strings, PollutionPolicy.FAIL, (value, index) -> { });
+  }
+
+  @Benchmark
+  public int writeStringsValue() throws Exception
+  {
+    final StringBuilder out = new StringBuilder();
+    StringsRenderer.writeStringsValue(this.strings, out);
+    return out.length();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public String get()
+  {
+    return this.strings.get(this.size / 2 + 7);
+  }
+}
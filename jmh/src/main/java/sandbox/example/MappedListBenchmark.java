@@ -0,0 +1,106 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares a strings collection in an ArrayList with one in a {@link MappedStringList}. The setup prints
+ * the heap in use once the collection is populated, which differs between the two implementations by the
+ * heap that the collection retains. The benchmarks render the collection while it stays
+ * reachable, so with {@code -prof gc} the gc.time and gc.count rows show how much the collections cost the
+ * garbage collector on top of the allocation of the rendering itself.</p>
+ * <p>The heap is fixed so that the old generation has the same size for both collections.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class MappedListBenchmark {
+
+  @Param({"ArrayList", "MappedStringList"})
+  String implementation;
+
+  @Param({"1000000", "10000000"})
+  int size;
+
+  List<String> strings;
+
+  TypeErasureDemonstration example;
+
+  FileChannel output;
+
+  @Setup
+  public void setUp() throws IOException
+  {
+    this.strings = BenchmarkData.newList(this.implementation);
+    BenchmarkData.fill(this.strings, this.size, 0.0);
+    System.out.println();
+    System.out.println("Heap used with " + this.size + " elements in a " + this.implementation + ": "
+      + usedHeapAfterGc() / 1024 + " KiB");
+    this.example = new TypeErasureDemonstration(this.strings, OutputSink.DISCARD);
+    this.output = FileChannel.open(Files.createTempFile("strings", ".out"), StandardOpenOption.WRITE,
+      StandardOpenOption.DELETE_ON_CLOSE);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException
+  {
+    this.output.close();
+    if (this.strings instanceof MappedStringList) {
+      ((MappedStringList) this.strings).close();
+    }
+  }
+
+  @Benchmark
+  public String getStringsValue()
+  {
+    return this.example.getStringsValue();
+  }
+
+  @Benchmark
+  public String getReverseStringsValue()
+  {
+    return this.example.getReverseStringsValue();
+  }
+
+  /**
+   * Writes the rendering to a file, which streams the ArrayList through an encoder and hands the bytes of
+   * the mapped list to the file in gathering writes.
+   */
+  @Benchmark
+  public long writeStringsValueToFile() throws IOException
+  {
+    this.output.position(0);
+    this.example.writeStringsValue(this.output);
+    return this.output.position();
+  }
+
+  private static long usedHeapAfterGc()
+  {
+    final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
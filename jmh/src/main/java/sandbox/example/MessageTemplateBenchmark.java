@@ -0,0 +1,56 @@
+package sandbox.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link String#format(String, Object...)} with a {@link MessageTemplate} for the six argument
+ * diagnostic message of {@link TypeErasureDemonstration#dontDoThisEither()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageTemplateBenchmark {
+
+  private static final String PATTERN = "%s: Tried to invoke method '%s' on object '%s', but '%s' is not a valid "
+    + "method for an object of type '%s', so that's what causes this %s exception";
+
+  final MessageTemplate template = MessageTemplate.compile(PATTERN);
+
+  final StringBuilder buffer = new StringBuilder(256);
+
+  final Object wrongObject = 5;
+
+  @Benchmark
+  public String stringFormat()
+  {
+    return String.format(PATTERN, "IllegalArgumentException", "length", this.wrongObject, "length",
+      "java.lang.Integer", "IllegalArgumentException");
+  }
+
+  @Benchmark
+  public String templateFormat()
+  {
+    return this.template.format("IllegalArgumentException", "length", this.wrongObject, "length",
+      "java.lang.Integer", "IllegalArgumentException");
+  }
+
+  @Benchmark
+  public StringBuilder templateAppendTo()
+  {
+    this.buffer.setLength(0);
+    return this.template.appendTo(this.buffer, "IllegalArgumentException", "length", this.wrongObject, "length",
+      "java.lang.Integer", "IllegalArgumentException");
+  }
+}
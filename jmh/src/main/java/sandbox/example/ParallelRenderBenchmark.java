@@ -0,0 +1,50 @@
+package sandbox.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential reverse rendering with the fork/join rendering on the common pool. The list is
+ * not polluted so that both renderings complete.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ParallelRenderBenchmark {
+
+  @Param({"100000", "1000000", "10000000"})
+  int size;
+
+  TypeErasureDemonstration example;
+
+  @Setup
+  public void setUp()
+  {
+    this.example = BenchmarkData.demonstration(this.size, 0.0);
+  }
+
+  @Benchmark
+  public String sequential()
+  {
+    return this.example.getReverseStringsValue();
+  }
+
+  @Benchmark
+  public String parallel()
+  {
+    return this.example.getReverseStringsValueInParallel();
+  }
+}
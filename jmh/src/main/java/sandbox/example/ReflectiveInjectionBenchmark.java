@@ -0,0 +1,60 @@
+package sandbox.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective injection of {@link TypeErasureDemonstration#neverDoThis()}, which looks up the
+ * strings field on every call, with {@link TypeErasureDemonstration#neverDoThisWithHandle()}, which uses a
+ * VarHandle resolved once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReflectiveInjectionBenchmark {
+
+  TypeErasureDemonstration example;
+
+  @Setup(Level.Iteration)
+  public void setUp()
+  {
+    this.example = new TypeErasureDemonstration();
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration field()
+  {
+    this.trim();
+    this.example.neverDoThis();
+    return this.example;
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration varHandle()
+  {
+    this.trim();
+    this.example.neverDoThisWithHandle();
+    return this.example;
+  }
+
+  // Keeps the target list small so that the measurement is the injection and not the list growth.
+  private void trim()
+  {
+    if (this.example.strings.size() == 1024) {
+      this.example.strings.clear();
+    }
+  }
+}
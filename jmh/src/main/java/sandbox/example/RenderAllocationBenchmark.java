@@ -0,0 +1,75 @@
+package sandbox.example;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the bytes allocated per call by the render methods against the default capacity
+ * StringBuilder they used to start with. Run it with the GC profiler and compare gc.alloc.rate.norm.
+ * The list is not polluted so that the reverse rendering completes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class RenderAllocationBenchmark {
+
+  @Param({"5", "1000", "100000", "1000000"})
+  int size;
+
+  TypeErasureDemonstration example;
+
+  @Setup
+  public void setUp()
+  {
+    this.example = BenchmarkData.demonstration(this.size, 0.0);
+  }
+
+  @Benchmark
+  public String defaultCapacityStringsValue()
+  {
+    final StringBuilder stringBuilder = new StringBuilder(StringsRenderer.STRINGS_VALUE_PREFIX);
+    for (final Object value : this.example.strings) {
+      stringBuilder.append("'").append(value).append("', ");
+    }
+    final int lastCommaPosition = stringBuilder.lastIndexOf(",");
+    stringBuilder.delete(lastCommaPosition, lastCommaPosition + 2);
+    return stringBuilder.append(']').toString();
+  }
+
+  @Benchmark
+  public String getStringsValue()
+  {
+    return this.example.getStringsValue();
+  }
+
+  @Benchmark
+  public String defaultCapacityReverseStringsValue()
+  {
+    final StringBuilder stringBuilder = new StringBuilder(StringsRenderer.REVERSE_STRINGS_VALUE_PREFIX);
+    for (final String value : this.example.strings) {
+      stringBuilder.append("'").append(new StringBuilder(value).reverse().toString()).append("', ");
+    }
+    final int lastCommaPosition = stringBuilder.lastIndexOf(",");
+    stringBuilder.delete(lastCommaPosition, lastCommaPosition + 2);
+    return stringBuilder.append(']').toString();
+  }
+
+  @Benchmark
+  public String getReverseStringsValue()
+  {
+    return this.example.getReverseStringsValue();
+  }
+}
@@ -0,0 +1,71 @@
+package sandbox.example;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Renders the strings collection with {@code getStringsValue} while another thread keeps changing it,
+ * comparing a {@link SnapshotList} with a CopyOnWriteArrayList, which copies the whole array on every
+ * change. The writer replaces elements in turn rather than adding them, so that the collection keeps its
+ * size and the renderings of both collections do the same amount of work; a CopyOnWriteArrayList copies
+ * its array for a replacement just like for an addition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Group)
+public class SnapshotListBenchmark {
+
+  @Param({"CopyOnWriteArrayList", "SnapshotList"})
+  String implementation;
+
+  @Param({"1000", "100000"})
+  int size;
+
+  List<String> strings;
+
+  int nextIndex;
+
+  TypeErasureDemonstration example;
+
+  @Setup
+  public void setUp()
+  {
+    this.strings = BenchmarkData.newList(this.implementation);
+    BenchmarkData.fill(this.strings, this.size, 0.0);
+    this.example = new TypeErasureDemonstration(this.strings, OutputSink.DISCARD);
+  }
+
+  @Benchmark
+  @Group("renderWhileChanging")
+  @GroupThreads(1)
+  public String set()
+  {
+    final int index = this.nextIndex;
+    this.nextIndex = index + 1 == this.size ? 0 : index + 1;
+    return this.strings.set(index, "string value");
+  }
+
+  @Benchmark
+  @Group("renderWhileChanging")
+  @GroupThreads(1)
+  public String getStringsValue()
+  {
+    return this.example.getStringsValue();
+  }
+}
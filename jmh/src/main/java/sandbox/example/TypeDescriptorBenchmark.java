@@ -0,0 +1,57 @@
+package sandbox.example;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares checking the fourth element of the strings collection against the declared type argument of
+ * the strings field by walking {@link Field#getGenericType()} on every check, with looking the field up by
+ * its index in the {@link TypeDescriptor} cache and comparing classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeDescriptorBenchmark {
+
+  Object element;
+
+  int stringsIndex;
+
+  @Setup
+  public void setUp()
+  {
+    final TypeErasureDemonstration example = new TypeErasureDemonstration();
+    example.initializeStrings();
+    this.element = example.strings.get(3);
+    this.stringsIndex = TypeDescriptor.fieldIndex(TypeErasureDemonstration.class, "strings");
+  }
+
+  @Benchmark
+  public boolean genericType() throws NoSuchFieldException
+  {
+    final Field field = TypeErasureDemonstration.class.getDeclaredField("strings");
+    final ParameterizedType type = (ParameterizedType) field.getGenericType();
+    return ((Class<?>) type.getActualTypeArguments()[0]).isInstance(this.element);
+  }
+
+  @Benchmark
+  public boolean descriptor()
+  {
+    return TypeDescriptor.fieldsOf(TypeErasureDemonstration.class)[this.stringsIndex].type.elements
+      .accepts(this.element);
+  }
+}
@@ -0,0 +1,116 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures every stage of {@link TypeErasureDemonstration} over lists of increasing size and increasing
+ * share of Integer type values. Run it with the GC profiler (the default of the jmh task) to get the
+ * allocation rate per operation next to throughput and average latency.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class TypeErasureDemonstrationBenchmark {
+
+  @Param({"5", "1000", "100000", "1000000", "10000000"})
+  int size;
+
+  @Param({"0.0", "0.1", "0.5"})
+  double pollutedRatio;
+
+  TypeErasureDemonstration example;
+
+  TypeErasureDemonstration injectionTarget;
+
+  final Writer discardingWriter = Writer.nullWriter();
+
+  @Setup(Level.Trial)
+  public void setUp()
+  {
+    this.example = BenchmarkData.demonstration(this.size, this.pollutedRatio);
+  }
+
+  @Setup(Level.Iteration)
+  public void setUpInjectionTarget()
+  {
+    this.injectionTarget = new TypeErasureDemonstration(new ArrayList<>(), OutputSink.DISCARD);
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration initializeStrings()
+  {
+    final TypeErasureDemonstration fresh = new TypeErasureDemonstration(new ArrayList<>(), OutputSink.DISCARD);
+    fresh.initializeStrings();
+    return fresh;
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration neverDoThis()
+  {
+    // Keeps the target list small so that the measurement is the injection and not the list growth.
+    if (this.injectionTarget.strings.size() == 1024) {
+      this.injectionTarget.strings.clear();
+    }
+    this.injectionTarget.neverDoThis();
+    return this.injectionTarget;
+  }
+
+  @Benchmark
+  public TypeErasureDemonstration dontDoThisEither()
+  {
+    this.example.dontDoThisEither();
+    return this.example;
+  }
+
+  @Benchmark
+  public String getStringsValue()
+  {
+    return this.example.getStringsValue();
+  }
+
+  @Benchmark
+  public Writer writeStringsValue() throws IOException
+  {
+    this.example.writeStringsValue(this.discardingWriter);
+    return this.discardingWriter;
+  }
+
+  /**
+   * A polluted list makes the reverse rendering fail with a ClassCastException, so the failure is part
+   * of what gets measured; that is the cost the hot loop pays today.
+   * @return the rendered value, or the exception that aborted the rendering
+   */
+  @Benchmark
+  public Object getReverseStringsValue()
+  {
+    try {
+      return this.example.getReverseStringsValue();
+    } catch (ClassCastException ex) {
+      return ex;
+    }
+  }
+
+  @Benchmark
+  public String getReverseStringsValueSkippingPolluted()
+  {
+    return this.example.getReverseStringsValue(PollutionPolicy.SKIP);
+  }
+}
@@ -0,0 +1,52 @@
+package sandbox.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the record throughput of a {@link ViolationRecorder} when 64 threads record violations at the
+ * same time. A recorder with a single stripe is a single synchronized ring buffer, which every thread
+ * contends for; with 64 stripes every thread has a stripe of its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ViolationRecorderBenchmark {
+
+  @Param({"1", "64"})
+  int stripes;
+
+  ViolationRecorder recorder;
+
+  List<String> strings;
+
+  @Setup
+  public void setUp()
+  {
+    this.recorder = new ViolationRecorder(this.stripes);
+    this.strings = new ArrayList<>();
+  }
+
+  @Benchmark
+  public void record()
+  {
+    this.recorder.record(this.strings, 10, 5);
+  }
+}
@@ -0,0 +1,233 @@
+package sandbox.example;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>An output sink that hands every line to a single writer thread through a bounded ring buffer, so the
+ * threads producing the lines never wait for I/O. They only wait when they get a whole buffer ahead of the
+ * writer thread. The writer thread drains whatever lines are waiting in one batch, writes them through a
+ * buffered writer and flushes according to the {@link FlushPolicy}.</p>
+ * <p>Closing the sink waits until every line sent before has been written and flushed. A producer checks
+ * that the sink is open and queues its line while holding the shared side of a read-write lock, and
+ * closing takes the exclusive side, so no line is ever queued behind the end of the output. If the writer
+ * thread fails, it stops, and every later line is rejected at once instead of waiting for room in a buffer
+ * that nobody drains anymore.</p>
+ */
+final class AsyncOutputSink implements OutputSink, Closeable {
+
+  /**
+   * When the writer thread flushes what it has written.
+   */
+  enum FlushPolicy {
+
+    /** After every line, like {@link System#out} does. */
+    EVERY_LINE,
+
+    /** Whenever the writer thread has written every line that was waiting. */
+    EVERY_BATCH,
+
+    /** Only when the sink is closed or the buffer of the writer fills up. */
+    ON_CLOSE
+  }
+
+  static final int DEFAULT_CAPACITY = 1 << 12;
+
+  /** How long a producer waits for room in the buffer before it checks again whether the writer failed. */
+  private static final long OFFER_TIMEOUT_MILLIS = 10;
+
+  /** Tells the writer thread that no lines follow. Compared by identity. */
+  private static final String END_OF_OUTPUT = new String("");
+
+  private final BlockingQueue<String> lines;
+
+  private final Writer writer;
+
+  private final boolean closeWriter;
+
+  private final FlushPolicy flushPolicy;
+
+  private final Thread writerThread;
+
+  /** Held shared by producers while they queue a line, and exclusively while the sink is closed. */
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+  /** Why the writer thread stopped before the end of the output, if it did. */
+  private volatile IOException failure;
+
+  private boolean closed;
+
+  private AsyncOutputSink(final Writer writer, final boolean closeWriter, final FlushPolicy flushPolicy,
+    final int capacity)
+  {
+    this.lines = new ArrayBlockingQueue<>(capacity);
+    this.writer = writer;
+    this.closeWriter = closeWriter;
+    this.flushPolicy = flushPolicy;
+    this.writerThread = new Thread(this::writeLines, "async-output-sink");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Creates a sink that writes to the standard output of the process with the default charset. Closing the
+   * sink flushes the standard output but does not close it.
+   * @param flushPolicy when to flush the standard output
+   * @return the sink
+   */
+  static AsyncOutputSink toStandardOut(final FlushPolicy flushPolicy)
+  {
+    final Writer writer = new BufferedWriter(
+      new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), Charset.defaultCharset()), 1 << 16);
+    return new AsyncOutputSink(writer, false, flushPolicy, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a sink that writes UTF-8 text to the given file through a file channel, replacing any content
+   * the file had. Closing the sink closes the file.
+   * @param file the file to write to
+   * @param flushPolicy when to flush what was written to the file channel
+   * @param capacity the number of lines that can wait for the writer thread
+   * @return the sink
+   * @throws IOException if the file cannot be opened
+   */
+  static AsyncOutputSink toFile(final Path file, final FlushPolicy flushPolicy, final int capacity)
+    throws IOException
+  {
+    final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING);
+    final Writer writer = new BufferedWriter(
+      Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), 1 << 16), 1 << 16);
+    return new AsyncOutputSink(writer, true, flushPolicy, capacity);
+  }
+
+  /**
+   * Queues a line for the writer thread.
+   * @param line the text, without a line terminator
+   * @throws NullPointerException if the line is null
+   * @throws IllegalStateException if the sink is closed or its writer thread failed
+   */
+  @Override
+  public void println(final String line)
+  {
+    Objects.requireNonNull(line, "line");
+    this.closeLock.readLock().lock();
+    try {
+      if (this.closed) {
+        throw new IllegalStateException("The output sink is closed");
+      }
+      this.enqueue(line);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the output sink", ex);
+    } finally {
+      this.closeLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Waits for room in the buffer, giving up as soon as the writer thread has failed.
+   */
+  private void enqueue(final String line) throws InterruptedException
+  {
+    do {
+      if (this.failure != null) {
+        throw new IllegalStateException("The output sink failed", this.failure);
+      }
+    } while (!this.lines.offer(line, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Waits until every queued line is written and flushed, then stops the writer thread.
+   * @throws IOException if any line could not be written
+   */
+  @Override
+  public void close() throws IOException
+  {
+    this.closeLock.writeLock().lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      if (this.failure == null) {
+        this.enqueue(END_OF_OUTPUT);
+      }
+      this.writerThread.join();
+    } catch (IllegalStateException ex) {
+      // The writer thread failed while the end of the output was waiting for room; the failure is thrown below.
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while closing the output sink");
+    } finally {
+      this.closeLock.writeLock().unlock();
+    }
+
+    if (this.failure != null) {
+      throw this.failure;
+    }
+  }
+
+  private void writeLines()
+  {
+    final List<String> batch = new ArrayList<>();
+    try {
+      boolean open = true;
+      while (open) {
+        batch.add(this.lines.take());
+        this.lines.drainTo(batch);
+
+        for (final String line : batch) {
+          if (line == END_OF_OUTPUT) {
+            open = false;
+            break;
+          }
+          this.writer.write(line);
+          this.writer.write(System.lineSeparator());
+          if (this.flushPolicy == FlushPolicy.EVERY_LINE) {
+            this.writer.flush();
+          }
+        }
+        batch.clear();
+
+        if (this.flushPolicy == FlushPolicy.EVERY_BATCH) {
+          this.writer.flush();
+        }
+      }
+      this.writer.flush();
+      if (this.closeWriter) {
+        this.writer.close();
+      }
+    } catch (IOException ex) {
+      this.failure = ex;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      this.failure = new InterruptedIOException("The writer thread of the output sink was interrupted");
+    } catch (Throwable ex) {
+      // Any other failure of the writer stops the thread just the same, so producers must learn about it too.
+      this.failure = new IOException("The writer thread of the output sink failed", ex);
+    }
+    // The lines still waiting cannot be written anymore.
+    this.lines.clear();
+  }
+}
@@ -0,0 +1,214 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Runs the demonstration over many instances at once as a canary workload. Every instance is
+ * initialized, rendered, made to invoke a method on the wrong type of object and rendered in reverse, each
+ * on its own virtual thread, with a limit on how many instances are in flight. The driver then reports the
+ * overall throughput and the latency percentiles of every stage.</p>
+ * <p>The project is compiled for Java 11, so the virtual thread executor is looked up at runtime. On a Java
+ * runtime without virtual threads, the driver falls back to a pool of platform threads as large as the
+ * concurrency limit.</p>
+ */
+final class BatchDriver {
+
+  /**
+   * The stages that every instance goes through, in order.
+   */
+  enum Stage {
+    INITIALIZE_STRINGS("initializeStrings"),
+    GET_STRINGS_VALUE("getStringsValue"),
+    DONT_DO_THIS_EITHER("dontDoThisEither"),
+    GET_REVERSE_STRINGS_VALUE("getReverseStringsValue");
+
+    final String methodName;
+
+    Stage(final String methodName)
+    {
+      this.methodName = methodName;
+    }
+  }
+
+  private static final Stage[] STAGES = Stage.values();
+
+  private static final MessageTemplate STAGE_LINE
+    = MessageTemplate.compile("  %s: p50 %s us, p99 %s us, p99.9 %s us, max %s us, failures %s");
+
+  private final int instances;
+
+  private final int concurrency;
+
+  private final OutputSink out;
+
+  /** The latency of every instance in every stage, in nanoseconds, indexed by stage and then by instance. */
+  private final long[][] latencies;
+
+  private final LongAdder[] failures;
+
+  /**
+   * @param instances the number of demonstration instances to run
+   * @param concurrency the largest number of instances running at the same time
+   * @param out the destination of the output of the instances
+   */
+  BatchDriver(final int instances, final int concurrency, final OutputSink out)
+  {
+    if (instances < 1 || concurrency < 1) {
+      throw new IllegalArgumentException("The number of instances and the concurrency must be positive");
+    }
+    this.instances = instances;
+    this.concurrency = concurrency;
+    this.out = out;
+    this.latencies = new long[STAGES.length][instances];
+    this.failures = new LongAdder[STAGES.length];
+    for (int i = 0; i < STAGES.length; i++) {
+      this.failures[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Runs every instance and waits for all of them to finish.
+   * @return the report of the run
+   * @throws InterruptedException if interrupted while waiting for the instances
+   */
+  String run() throws InterruptedException
+  {
+    final Semaphore permits = new Semaphore(this.concurrency);
+    final ExecutorService executor = newExecutor(this.concurrency);
+    final long start = System.nanoTime();
+    try {
+      for (int i = 0; i < this.instances; i++) {
+        final int instance = i;
+        permits.acquire();
+        executor.execute(() -> {
+          try {
+            this.runInstance(instance);
+          } finally {
+            permits.release();
+          }
+        });
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+    return this.report(System.nanoTime() - start, !(executor instanceof ThreadPoolExecutor));
+  }
+
+  private void runInstance(final int instance)
+  {
+    final TypeErasureDemonstration example = new TypeErasureDemonstration(new ArrayList<>(), this.out);
+    for (final Stage stage : STAGES) {
+      final long start = System.nanoTime();
+      try {
+        switch (stage) {
+          case INITIALIZE_STRINGS:
+            example.initializeStrings();
+            break;
+          case GET_STRINGS_VALUE:
+            this.out.println(example.getStringsValue());
+            break;
+          case DONT_DO_THIS_EITHER:
+            example.dontDoThisEither();
+            break;
+          case GET_REVERSE_STRINGS_VALUE:
+            this.out.println(example.getReverseStringsValue());
+            break;
+          default:
+            throw new IllegalStateException("Unknown stage: " + stage);
+        }
+      } catch (RuntimeException ex) {
+        // The ClassCastException of the reverse rendering is the expected outcome of the demonstration.
+        this.failures[stage.ordinal()].increment();
+      }
+      this.latencies[stage.ordinal()][instance] = System.nanoTime() - start;
+    }
+  }
+
+  private String report(final long elapsedNanos, final boolean virtual)
+  {
+    final StringBuilder report = new StringBuilder()
+      .append(this.instances).append(" instances on ").append(virtual ? "virtual" : "platform")
+      .append(" threads, at most ").append(this.concurrency).append(" at a time, in ")
+      .append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms: ")
+      .append(String.format("%.1f", this.instances * 1e9 / elapsedNanos)).append(" instances per second");
+
+    for (final Stage stage : STAGES) {
+      final long[] sorted = this.latencies[stage.ordinal()].clone();
+      Arrays.sort(sorted);
+      report.append(System.lineSeparator());
+      STAGE_LINE.appendTo(report, stage.methodName, micros(percentile(sorted, 0.5)),
+        micros(percentile(sorted, 0.99)), micros(percentile(sorted, 0.999)), micros(sorted[sorted.length - 1]),
+        this.failures[stage.ordinal()].sum());
+    }
+    return report.toString();
+  }
+
+  private static long percentile(final long[] sorted, final double fraction)
+  {
+    return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)];
+  }
+
+  private static String micros(final long nanos)
+  {
+    return String.format("%.1f", nanos / 1e3);
+  }
+
+  /**
+   * Creates an executor that starts a virtual thread per task where the Java runtime supports them, or a
+   * pool of platform threads otherwise.
+   */
+  private static ExecutorService newExecutor(final int concurrency)
+  {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException ex) {
+      return Executors.newFixedThreadPool(concurrency);
+    }
+  }
+
+  /**
+   * Runs the batch from the command line.
+   * @param args {@code --instances=N}, {@code --concurrency=N} and {@code --print} to print the output of
+   *   every instance instead of discarding it
+   * @throws InterruptedException if interrupted while waiting for the instances
+   * @throws IOException if the output cannot be written
+   */
+  public static void main(final String[] args) throws InterruptedException, IOException
+  {
+    int instances = 100_000;
+    int concurrency = 1_000;
+    boolean print = false;
+    for (final String arg : args) {
+      if (arg.startsWith("--instances=")) {
+        instances = Integer.parseInt(arg.substring("--instances=".length()));
+      } else if (arg.startsWith("--concurrency=")) {
+        concurrency = Integer.parseInt(arg.substring("--concurrency=".length()));
+      } else if ("--print".equals(arg)) {
+        print = true;
+      } else {
+        throw new IllegalArgumentException("Unknown argument: " + arg);
+      }
+    }
+
+    /*
+     * Diagnostics are enabled so that the expected failures of the demonstration are counted instead of
+     * printing a stack trace for every instance.
+     */
+    ErasureDiagnostics.setEnabled(true);
+    DemonstrationMetrics.register();
+    try (AsyncOutputSink out = AsyncOutputSink.toStandardOut(AsyncOutputSink.FlushPolicy.EVERY_BATCH)) {
+      final String report = new BatchDriver(instances, concurrency, print ? out : OutputSink.DISCARD).run();
+      out.println(report);
+      out.println(DemonstrationMetrics.get().dump());
+    }
+  }
+}
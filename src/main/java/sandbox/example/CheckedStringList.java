@@ -0,0 +1,132 @@
+package sandbox.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * <p>A list of String type values that rejects any other type of value at the moment it is inserted,
+ * even when the insertion goes through the raw List type like the reflective insertion in
+ * {@link TypeErasureDemonstration#neverDoThis()} does. The wrong type of value then causes a
+ * ClassCastException at the insertion instead of much later wherever the value is read.</p>
+ * <p>Unlike {@link java.util.Collections#checkedList(java.util.List, Class)}, which wraps another list and
+ * calls {@link Class#cast(Object)} on every insertion, the check here is the cast of the value to String
+ * in the bridge methods that the compiler generates for the erased {@code add(Object)} and
+ * {@code set(int, Object)} signatures. Because String is a final class, that cast is a single pointer
+ * comparison that the JIT compiler inlines.</p>
+ */
+final class CheckedStringList extends AbstractList<String> implements RandomAccess {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private String[] elements;
+
+  private int size;
+
+  CheckedStringList()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  CheckedStringList(final int initialCapacity)
+  {
+    this.elements = new String[initialCapacity];
+  }
+
+  @Override
+  public String get(final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    return this.elements[index];
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public boolean add(final String value)
+  {
+    if (this.size == this.elements.length) {
+      this.grow(this.size + 1);
+    }
+    this.elements[this.size++] = value;
+    this.modCount++;
+    return true;
+  }
+
+  @Override
+  public void add(final int index, final String value)
+  {
+    Objects.checkIndex(index, this.size + 1);
+    if (this.size == this.elements.length) {
+      this.grow(this.size + 1);
+    }
+    System.arraycopy(this.elements, index, this.elements, index + 1, this.size - index);
+    this.elements[index] = value;
+    this.size++;
+    this.modCount++;
+  }
+
+  @Override
+  public String set(final int index, final String value)
+  {
+    Objects.checkIndex(index, this.size);
+    final String previous = this.elements[index];
+    this.elements[index] = value;
+    return previous;
+  }
+
+  @Override
+  public String remove(final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    final String removed = this.elements[index];
+    System.arraycopy(this.elements, index + 1, this.elements, index, this.size - index - 1);
+    this.elements[--this.size] = null;
+    this.modCount++;
+    return removed;
+  }
+
+  /**
+   * Adds all values of the given collection. A raw collection can hold any type of value, so every value
+   * is checked before any of them is added.
+   * @param values the values to add
+   * @return true when the list changed
+   */
+  @Override
+  public boolean addAll(final Collection<? extends String> values)
+  {
+    final Object[] added = values.toArray();
+    for (final Object value : added) {
+      if (value != null && value.getClass() != String.class) {
+        throw new ClassCastException("Attempt to insert " + value.getClass() + " into a list of " + String.class);
+      }
+    }
+    if (this.size + added.length > this.elements.length) {
+      this.grow(this.size + added.length);
+    }
+    System.arraycopy(added, 0, this.elements, this.size, added.length);
+    this.size += added.length;
+    this.modCount++;
+    return added.length > 0;
+  }
+
+  @Override
+  public void clear()
+  {
+    Arrays.fill(this.elements, 0, this.size, null);
+    this.size = 0;
+    this.modCount++;
+  }
+
+  private void grow(final int minimumCapacity)
+  {
+    final int capacity = Math.max(minimumCapacity, this.elements.length + (this.elements.length >> 1) + 1);
+    this.elements = Arrays.copyOf(this.elements, capacity);
+  }
+}
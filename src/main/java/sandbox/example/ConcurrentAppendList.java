@@ -0,0 +1,236 @@
+package sandbox.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * <p>A list that many threads can add to at the same time, and read while they do, without any lock. It
+ * is meant for a strings collection that several producers fill, like {@link
+ * TypeErasureDemonstration#initializeStrings()} does, while a renderer iterates over it.</p>
+ * <p>An element is added in two steps. The producer reserves a slot by incrementing the reserved count,
+ * so that no two producers ever write the same slot, and then publishes the element by writing it into its
+ * slot with a release store. Nothing else is shared between producers: there is no published size that
+ * every producer has to advance in turn.</p>
+ * <p>Readers see the published prefix of the list: the slots from the first one up to, but not including,
+ * the first slot that is reserved but not written yet. The prefix only ever grows, so a position always
+ * holds the same element once it is visible, and the elements are seen in the order their slots were
+ * reserved. A producer that is descheduled between the two steps therefore hides the elements added after
+ * it until it publishes its own. So that readers do not scan the prefix from the first slot every time,
+ * the length of the prefix found by the last scan is kept as a hint that only readers advance, and
+ * {@link #size()} and {@link #get(int)} only scan the slots published since.</p>
+ * <p>The slots live in chunks that double in size, starting at {@value #FIRST_CHUNK_SIZE} slots, so that
+ * the list never copies its elements to grow. A chunk is allocated by the first producer that needs it and
+ * installed with a compare-and-set. The reserved count and the published hint each live in a
+ * {@link Counter} of their own, padded so that producers incrementing the one and readers advancing the
+ * other do not invalidate each other's cache line, nor that of the fields of the list.</p>
+ * <p>The iterator iterates over the published prefix as it is when the iterator is created, and never
+ * throws a ConcurrentModificationException. The element type is a type variable rather than String, so
+ * that a value inserted through the raw List type is stored like an ArrayList would store it.</p>
+ * @param <E> the declared type of the elements
+ */
+final class ConcurrentAppendList<E> extends AbstractList<E> implements RandomAccess {
+
+  private static final int FIRST_CHUNK_BITS = 5;
+
+  static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+
+  /**
+   * The largest number of elements. The position of a slot is its index plus {@value #FIRST_CHUNK_SIZE},
+   * so that its highest bit tells its chunk, and it has to stay within an int.
+   */
+  static final int MAXIMUM_SIZE = Integer.MAX_VALUE - FIRST_CHUNK_SIZE;
+
+  /** Enough chunks for every slot up to the maximum size. */
+  private static final int CHUNK_COUNT = Integer.SIZE - 1 - FIRST_CHUNK_BITS;
+
+  /** Stored in place of a null element, so that an empty slot can be told from a written one. */
+  private static final Object NULL = new Object();
+
+  private static final VarHandle CHUNKS = MethodHandles.arrayElementVarHandle(Object[][].class);
+
+  private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+  private final Object[][] chunks = new Object[CHUNK_COUNT][];
+
+  /** The number of slots handed out to producers, which keeps growing past the maximum size when full. */
+  private final Counter reserved = new Counter();
+
+  /** A length of the published prefix that some reader has found, which is never more than its length. */
+  private final Counter published = new Counter();
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(final int index)
+  {
+    if (index < 0 || index >= this.published.get() && index >= this.size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size());
+    }
+    final Object value = this.slot(index);
+    return value == NULL ? null : (E) value;
+  }
+
+  /**
+   * Finds the length of the published prefix, scanning only the slots after the last length found.
+   * @return the number of published elements
+   */
+  @Override
+  public int size()
+  {
+    final int hint = this.published.get();
+    final int limit = Math.min(this.reserved.get(), MAXIMUM_SIZE);
+    int size = hint;
+    while (size < limit && this.slot(size) != null) {
+      size++;
+    }
+    if (size > hint) {
+      // A reader that loses the race leaves the hint to one that found at least as long a prefix.
+      this.published.advance(hint, size);
+    }
+    return size;
+  }
+
+  /**
+   * Adds the value to the end of the list. The value is visible to readers once every producer that
+   * reserved a slot before this one has published its element too.
+   * @throws IllegalStateException if the list already holds {@value #MAXIMUM_SIZE} elements
+   */
+  @Override
+  public boolean add(final E value)
+  {
+    final int index = this.reserved.getAndIncrement();
+    if (index < 0 || index >= MAXIMUM_SIZE) {
+      throw new IllegalStateException("The list is full");
+    }
+
+    final int position = index + FIRST_CHUNK_SIZE;
+    final int chunkIndex = chunkOf(position);
+    Object[] chunk = (Object[]) CHUNKS.getAcquire(this.chunks, chunkIndex);
+    if (chunk == null) {
+      final Object[] allocated = new Object[FIRST_CHUNK_SIZE << chunkIndex];
+      final Object[] installed = (Object[]) CHUNKS.compareAndExchange(this.chunks, chunkIndex, null, allocated);
+      chunk = installed == null ? allocated : installed;
+    }
+    SLOTS.setRelease(chunk, position - (FIRST_CHUNK_SIZE << chunkIndex), value == null ? NULL : value);
+    return true;
+  }
+
+  private static int chunkOf(final int position)
+  {
+    return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(position) - FIRST_CHUNK_BITS;
+  }
+
+  /**
+   * @return the element in the slot with the given index, or null when the slot is not written yet
+   */
+  private Object slot(final int index)
+  {
+    final int position = index + FIRST_CHUNK_SIZE;
+    final int chunkIndex = chunkOf(position);
+    final Object[] chunk = (Object[]) CHUNKS.getAcquire(this.chunks, chunkIndex);
+    return chunk == null ? null : SLOTS.getAcquire(chunk, position - (FIRST_CHUNK_SIZE << chunkIndex));
+  }
+
+  /**
+   * Iterates over the elements published when this method is called. Elements added afterwards are not
+   * included, and adding them never disturbs the iteration.
+   */
+  @Override
+  public Iterator<E> iterator()
+  {
+    final int size = this.size();
+    return new Iterator<>() {
+
+      private int index;
+
+      @Override
+      public boolean hasNext()
+      {
+        return this.index < size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public E next()
+      {
+        if (this.index >= size) {
+          throw new NoSuchElementException();
+        }
+        final Object value = ConcurrentAppendList.this.slot(this.index++);
+        return value == NULL ? null : (E) value;
+      }
+    };
+  }
+
+  /**
+   * <p>The padding before the value of a {@link Counter}. HotSpot lays out the fields of a superclass
+   * before those of its subclasses, so padding declared in a superclass and in a subclass stays on either
+   * side of the value, which padding fields declared next to it would not guarantee. The Java language
+   * and the JVM specification leave the field layout to the JVM, though, so this only holds for the JVMs
+   * that happen to lay out fields this way.</p>
+   * <p>The documented way to keep a field on a cache line of its own is the {@code @Contended} annotation,
+   * but it is internal to the JDK: using it outside of the JDK takes an {@code --add-exports} to compile
+   * and {@code -XX:-RestrictContended} to have any effect, so it would silently do nothing for anyone who
+   * runs the demonstration without that flag. {@link ViolationRecorder} pads its stripes the same
+   * way.</p>
+   */
+  @SuppressWarnings("unused")
+  static class CounterPadding {
+
+    private long padding0, padding1, padding2, padding3, padding4, padding5, padding6, padding7;
+  }
+
+  private static class CounterValue extends CounterPadding {
+
+    volatile int value;
+  }
+
+  /**
+   * An int alone on its cache line.
+   */
+  @SuppressWarnings("unused")
+  private static final class Counter extends CounterValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(CounterValue.class, "value", int.class);
+      } catch (NoSuchFieldException | IllegalAccessException ex) {
+        throw new ExceptionInInitializerError(ex);
+      }
+    }
+
+    private long padding8, padding9, padding10, padding11, padding12, padding13, padding14, padding15;
+
+    /**
+     * @return the value, or Integer.MAX_VALUE once it has overflowed
+     */
+    int get()
+    {
+      final int value = this.value;
+      return value < 0 ? Integer.MAX_VALUE : value;
+    }
+
+    /**
+     * @return the value before the increment, which no other caller gets
+     */
+    int getAndIncrement()
+    {
+      return (int) VALUE.getAndAdd(this, 1);
+    }
+
+    /**
+     * Replaces the value with a larger one, unless it has changed since it was read.
+     * @param expected the value that was read
+     * @param value the new value
+     */
+    void advance(final int expected, final int value)
+    {
+      VALUE.compareAndSet(this, expected, value);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package sandbox.example;
+
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>JDK Flight Recorder events for the stages of {@link TypeErasureDemonstration}: the reflective
+ * injection, the invocation of a method on an element of the strings collection, and both renderings.
+ * Every event records its duration and the size of the strings collection. A render event also records
+ * how many of its elements are not String type values. Counting them walks the whole collection, which a
+ * rendering does anyway, but which would make an injection or an invocation as costly as a rendering, and
+ * on a {@link MappedStringList} would decode every element, so the other events leave it out.</p>
+ * <p>The events are switched on and off at runtime like any other JFR event, for example with
+ * {@code jcmd <pid> JFR.start settings=profile} or with a recording setting such as
+ * {@code sandbox.example.Render#enabled=false}. While no recording enables them, creating, beginning and
+ * committing an event does nothing and is optimized away by the JIT compiler, and the collection is only
+ * scanned for polluted elements when a render event is actually committed.</p>
+ */
+final class DemonstrationEvents {
+
+  private static final String CATEGORY = "Type Erasure Demonstration";
+
+  /** The declared element type of {@link TypeErasureDemonstration#strings}, resolved once. */
+  private static final TypeDescriptor STRINGS_ELEMENT_TYPE = TypeDescriptor.fieldsOf(TypeErasureDemonstration.class)
+    [TypeDescriptor.fieldIndex(TypeErasureDemonstration.class, "strings")].type.elements;
+
+  private DemonstrationEvents()
+  {
+  }
+
+  /**
+   * The fields shared by every event about the strings collection.
+   */
+  @Category(CATEGORY)
+  @StackTrace(false)
+  abstract static class CollectionEvent extends Event {
+
+    @Label("List Size")
+    @Description("The number of elements in the strings collection")
+    int listSize;
+  }
+
+  @Name("sandbox.example.Injection")
+  @Label("Reflective Injection")
+  @Description("An Integer type value inserted into the strings collection through reflection")
+  static final class Injection extends CollectionEvent {
+
+    @Label("Path")
+    @Description("How the strings field was reached: Field or VarHandle")
+    String path;
+  }
+
+  @Name("sandbox.example.Invocation")
+  @Label("Invocation Attempt")
+  @Description("An attempt to invoke a String method on an element of the strings collection")
+  static final class Invocation extends CollectionEvent {
+
+    @Label("Path")
+    @Description("How the method was invoked: Method or Invoker")
+    String path;
+
+    @Label("Receiver Type")
+    Class<?> receiverType;
+
+    @Label("Succeeded")
+    boolean succeeded;
+  }
+
+  @Name("sandbox.example.Render")
+  @Label("Render")
+  @Description("A rendering of the strings collection")
+  static final class Render extends CollectionEvent {
+
+    @Label("Polluted Elements")
+    @Description("The number of elements in the strings collection that are not String type values")
+    int pollutedElements;
+
+    @Label("Method")
+    String method;
+
+    @Label("Bytes Produced")
+    @Description("The size of the rendered text encoded as UTF-8; zero when the rendering failed")
+    @DataAmount
+    long bytesProduced;
+
+    @Label("Succeeded")
+    boolean succeeded;
+  }
+
+  static Injection beginInjection()
+  {
+    final Injection event = new Injection();
+    event.begin();
+    return event;
+  }
+
+  static void commit(final Injection event, final List<?> strings, final String path)
+  {
+    if (event.shouldCommit()) {
+      event.listSize = strings.size();
+      event.path = path;
+      event.commit();
+    }
+  }
+
+  static Invocation beginInvocation()
+  {
+    final Invocation event = new Invocation();
+    event.begin();
+    return event;
+  }
+
+  static void commit(final Invocation event, final List<?> strings, final String path, final Object receiver,
+    final boolean succeeded)
+  {
+    if (event.shouldCommit()) {
+      event.listSize = strings.size();
+      event.path = path;
+      event.receiverType = receiver == null ? null : receiver.getClass();
+      event.succeeded = succeeded;
+      event.commit();
+    }
+  }
+
+  static Render beginRender()
+  {
+    final Render event = new Render();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Commits a render event if it is enabled.
+   * @param event the event to commit
+   * @param strings the rendered strings collection
+   * @param method the name of the rendering method
+   * @param rendered the rendered text, or null when the rendering failed
+   */
+  static void commit(final Render event, final List<?> strings, final String method, final String rendered)
+  {
+    if (event.shouldCommit()) {
+      event.listSize = strings.size();
+      event.pollutedElements = pollutedElements(strings);
+      event.method = method;
+      event.bytesProduced = rendered == null ? 0 : utf8Length(rendered);
+      event.succeeded = rendered != null;
+      event.commit();
+    }
+  }
+
+  private static int pollutedElements(final List<?> strings)
+  {
+    int polluted = 0;
+    for (final Object value : strings) {
+      if (!STRINGS_ELEMENT_TYPE.accepts(value)) {
+        polluted++;
+      }
+    }
+    return polluted;
+  }
+
+  private static long utf8Length(final CharSequence text)
+  {
+    long length = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char current = text.charAt(i);
+      if (current < 0x80) {
+        length++;
+      } else if (current < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(current) && i + 1 < text.length()
+        && Character.isLowSurrogate(text.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+}
@@ -0,0 +1,222 @@
+package sandbox.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>Counts the erasure related events of {@link TypeErasureDemonstration} and records the latency of its
+ * renderings, so the cost of heap pollution can be followed over time without attaching a profiler. The
+ * counters are {@link LongAdder}s and the latencies go into {@link LatencyHistogram}s, so recording from
+ * many threads neither contends on a lock nor allocates.</p>
+ * <p>The metrics are available as plain text through {@link #dump()} and, once {@link #register()} was
+ * called, through JMX as {@value #OBJECT_NAME}.</p>
+ */
+final class DemonstrationMetrics implements DemonstrationMetricsMXBean {
+
+  static final String OBJECT_NAME = "sandbox.example:type=DemonstrationMetrics";
+
+  private static final DemonstrationMetrics INSTANCE = new DemonstrationMetrics();
+
+  private static final MessageTemplate COUNTER_LINE = MessageTemplate.compile("%s: %s");
+
+  private static final MessageTemplate LATENCY_LINE
+    = MessageTemplate.compile("%s latency: count %s, p50 %s ns, p99 %s ns, p99.9 %s ns, max %s ns");
+
+  private final LongAdder injections = new LongAdder();
+
+  private final LongAdder typeViolations = new LongAdder();
+
+  private final LongAdder classCastExceptions = new LongAdder();
+
+  private final LongAdder illegalArgumentExceptions = new LongAdder();
+
+  private final LatencyHistogram stringsValueLatency = new LatencyHistogram();
+
+  private final LatencyHistogram reverseStringsValueLatency = new LatencyHistogram();
+
+  private DemonstrationMetrics()
+  {
+  }
+
+  /**
+   * @return the metrics of every demonstration instance in this JVM
+   */
+  static DemonstrationMetrics get()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server, unless they already are.
+   * @throws IllegalStateException if the registration fails
+   */
+  static void register()
+  {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException ex) {
+      // Already registered, which is all that was asked for.
+    } catch (JMException ex) {
+      throw new IllegalStateException("Cannot register " + OBJECT_NAME, ex);
+    }
+  }
+
+  void recordInjection()
+  {
+    this.injections.increment();
+  }
+
+  void recordTypeViolation()
+  {
+    this.typeViolations.increment();
+  }
+
+  void recordClassCastException()
+  {
+    this.classCastExceptions.increment();
+  }
+
+  void recordIllegalArgumentException()
+  {
+    this.illegalArgumentExceptions.increment();
+  }
+
+  void recordStringsValueLatency(final long nanos)
+  {
+    this.stringsValueLatency.record(nanos);
+  }
+
+  void recordReverseStringsValueLatency(final long nanos)
+  {
+    this.reverseStringsValueLatency.record(nanos);
+  }
+
+  @Override
+  public long getInjections()
+  {
+    return this.injections.sum();
+  }
+
+  @Override
+  public long getTypeViolations()
+  {
+    return this.typeViolations.sum();
+  }
+
+  @Override
+  public long getClassCastExceptions()
+  {
+    return this.classCastExceptions.sum();
+  }
+
+  @Override
+  public long getIllegalArgumentExceptions()
+  {
+    return this.illegalArgumentExceptions.sum();
+  }
+
+  @Override
+  public long getStringsValueCount()
+  {
+    return this.stringsValueLatency.snapshot().count();
+  }
+
+  @Override
+  public long getStringsValueP50Nanos()
+  {
+    return this.stringsValueLatency.snapshot().percentile(0.5);
+  }
+
+  @Override
+  public long getStringsValueP99Nanos()
+  {
+    return this.stringsValueLatency.snapshot().percentile(0.99);
+  }
+
+  @Override
+  public long getStringsValueP999Nanos()
+  {
+    return this.stringsValueLatency.snapshot().percentile(0.999);
+  }
+
+  @Override
+  public long getStringsValueMaxNanos()
+  {
+    return this.stringsValueLatency.snapshot().max();
+  }
+
+  @Override
+  public long getReverseStringsValueCount()
+  {
+    return this.reverseStringsValueLatency.snapshot().count();
+  }
+
+  @Override
+  public long getReverseStringsValueP50Nanos()
+  {
+    return this.reverseStringsValueLatency.snapshot().percentile(0.5);
+  }
+
+  @Override
+  public long getReverseStringsValueP99Nanos()
+  {
+    return this.reverseStringsValueLatency.snapshot().percentile(0.99);
+  }
+
+  @Override
+  public long getReverseStringsValueP999Nanos()
+  {
+    return this.reverseStringsValueLatency.snapshot().percentile(0.999);
+  }
+
+  @Override
+  public long getReverseStringsValueMaxNanos()
+  {
+    return this.reverseStringsValueLatency.snapshot().max();
+  }
+
+  @Override
+  public String getDump()
+  {
+    return this.dump();
+  }
+
+  @Override
+  public void reset()
+  {
+    this.injections.reset();
+    this.typeViolations.reset();
+    this.classCastExceptions.reset();
+    this.illegalArgumentExceptions.reset();
+    this.stringsValueLatency.reset();
+    this.reverseStringsValueLatency.reset();
+  }
+
+  /**
+   * @return all metrics as plain text, one metric per line
+   */
+  String dump()
+  {
+    final StringBuilder dump = new StringBuilder(512);
+    final String lineSeparator = System.lineSeparator();
+    COUNTER_LINE.appendTo(dump, "injections", this.getInjections()).append(lineSeparator);
+    COUNTER_LINE.appendTo(dump, "typeViolations", this.getTypeViolations()).append(lineSeparator);
+    COUNTER_LINE.appendTo(dump, "classCastExceptions", this.getClassCastExceptions()).append(lineSeparator);
+    COUNTER_LINE.appendTo(dump, "illegalArgumentExceptions", this.getIllegalArgumentExceptions())
+      .append(lineSeparator);
+    appendLatency(dump, "getStringsValue", this.stringsValueLatency.snapshot()).append(lineSeparator);
+    return appendLatency(dump, "getReverseStringsValue", this.reverseStringsValueLatency.snapshot()).toString();
+  }
+
+  private static StringBuilder appendLatency(final StringBuilder dump, final String name,
+    final LatencyHistogram.Snapshot snapshot)
+  {
+    return LATENCY_LINE.appendTo(dump, name, snapshot.count(), snapshot.percentile(0.5),
+      snapshot.percentile(0.99), snapshot.percentile(0.999), snapshot.max());
+  }
+}
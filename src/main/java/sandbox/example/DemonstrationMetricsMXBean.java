@@ -0,0 +1,41 @@
+package sandbox.example;
+
+/**
+ * The management interface of {@link DemonstrationMetrics}. It is public only because JMX requires it.
+ */
+public interface DemonstrationMetricsMXBean {
+
+  long getInjections();
+
+  long getTypeViolations();
+
+  long getClassCastExceptions();
+
+  long getIllegalArgumentExceptions();
+
+  long getStringsValueCount();
+
+  long getStringsValueP50Nanos();
+
+  long getStringsValueP99Nanos();
+
+  long getStringsValueP999Nanos();
+
+  long getStringsValueMaxNanos();
+
+  long getReverseStringsValueCount();
+
+  long getReverseStringsValueP50Nanos();
+
+  long getReverseStringsValueP99Nanos();
+
+  long getReverseStringsValueP999Nanos();
+
+  long getReverseStringsValueMaxNanos();
+
+  /** @return all metrics as plain text */
+  String getDump();
+
+  /** Resets every counter and histogram. */
+  void reset();
+}
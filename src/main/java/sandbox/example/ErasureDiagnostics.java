@@ -0,0 +1,232 @@
+package sandbox.example;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counts the failures caused by type erasure and by the reflective abuse in
+ * {@link TypeErasureDemonstration}, and keeps the most recent failure of each kind.</p>
+ * <p>By default the demonstration reports failures the way it always has, by printing stack traces and
+ * formatted messages. Once diagnostics are enabled, failures are only counted and kept as exceptions that
+ * never fill in a stack trace and format their message only when it is asked for, so a hot loop that keeps
+ * failing does not spend its time walking stacks and formatting text.</p>
+ * <p>Every failure still allocates one small exception of its own. A thrown exception can be changed by
+ * whoever catches it, through {@code addSuppressed} or {@code initCause}, so sharing one between failures
+ * would leak those changes into every later failure, and allocating it is cheap next to the stack walk it
+ * replaces.</p>
+ */
+final class ErasureDiagnostics {
+
+  /**
+   * The kinds of failure that are counted, each with the template of its message.
+   */
+  enum Failure {
+    NO_SUCH_FIELD("The field '%s' does not exist"),
+    NO_SUCH_METHOD("The method '%s' does not exist"),
+    ILLEGAL_ACCESS("The member '%s' is not accessible"),
+    ILLEGAL_ARGUMENT("Tried to invoke method '%s' on object '%s', but '%s' is not a valid method for an "
+      + "object of type '%s'"),
+    INVOCATION_TARGET("The method '%s' threw an exception"),
+    CLASS_CAST("%s cannot be cast to %s");
+
+    final MessageTemplate template;
+
+    Failure(final String pattern)
+    {
+      this.template = MessageTemplate.compile(pattern);
+    }
+  }
+
+  private static final Failure[] FAILURES = Failure.values();
+
+  private static final LongAdder[] COUNTS = new LongAdder[FAILURES.length];
+
+  private static final AtomicReferenceArray<RuntimeException> LAST_FAILURES
+    = new AtomicReferenceArray<>(FAILURES.length);
+
+  private static volatile boolean enabled;
+
+  static {
+    for (int i = 0; i < COUNTS.length; i++) {
+      COUNTS[i] = new LongAdder();
+    }
+  }
+
+  private ErasureDiagnostics()
+  {
+  }
+
+  /**
+   * Switches between counting failures quietly with stackless exceptions and reporting them the way the
+   * demonstration always has.
+   * @param enable true to count failures quietly
+   */
+  static void setEnabled(final boolean enable)
+  {
+    enabled = enable;
+  }
+
+  /**
+   * @return true when failures are counted quietly instead of being printed
+   */
+  static boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  /**
+   * Reports a failure that surfaced as an exception thrown by the reflection API. With diagnostics enabled
+   * the failure is counted and kept as a new {@link DiagnosticException}; otherwise the stack trace is
+   * printed.
+   * @param ex the exception that was thrown
+   * @param memberName the name of the field or method that was looked up or invoked
+   */
+  static void report(final ReflectiveOperationException ex, final String memberName)
+  {
+    if (enabled) {
+      final Failure failure = failureOf(ex);
+      record(failure, new DiagnosticException(failure, ex, memberName));
+    } else {
+      ex.printStackTrace();
+    }
+  }
+
+  private static Failure failureOf(final ReflectiveOperationException ex)
+  {
+    if (ex instanceof NoSuchFieldException) {
+      return Failure.NO_SUCH_FIELD;
+    }
+    if (ex instanceof NoSuchMethodException) {
+      return Failure.NO_SUCH_METHOD;
+    }
+    if (ex instanceof IllegalAccessException) {
+      return Failure.ILLEGAL_ACCESS;
+    }
+    return Failure.INVOCATION_TARGET;
+  }
+
+  /**
+   * Counts a failure and keeps it as the most recent failure of its kind, in a new {@link DiagnosticException}
+   * with a message built from the template of the failure and the given arguments only when it is asked for.
+   * @param failure the kind of failure
+   * @param arguments the arguments of the message template
+   */
+  static void record(final Failure failure, final Object... arguments)
+  {
+    record(failure, new DiagnosticException(failure, null, arguments));
+  }
+
+  /**
+   * Counts a failed cast of the given value to String and returns the exception to throw for it. The
+   * exception has no stack trace and formats its message only when it is asked for.
+   * @param value the value that is not a String type value
+   * @return the exception to throw
+   */
+  static ClassCastException classCast(final Object value)
+  {
+    final ClassCastException ex = new StacklessClassCastException(value.getClass(), String.class);
+    record(Failure.CLASS_CAST, ex);
+    return ex;
+  }
+
+  private static void record(final Failure failure, final RuntimeException ex)
+  {
+    COUNTS[failure.ordinal()].increment();
+    LAST_FAILURES.lazySet(failure.ordinal(), ex);
+  }
+
+  /**
+   * @param failure the kind of failure
+   * @return how often the given kind of failure was counted
+   */
+  static long count(final Failure failure)
+  {
+    return COUNTS[failure.ordinal()].sum();
+  }
+
+  /**
+   * @param failure the kind of failure
+   * @return the most recent failure of the given kind, or null if there was none
+   */
+  static RuntimeException lastFailure(final Failure failure)
+  {
+    return LAST_FAILURES.get(failure.ordinal());
+  }
+
+  /**
+   * Resets all counts and forgets the most recent failures.
+   */
+  static void reset()
+  {
+    for (int i = 0; i < COUNTS.length; i++) {
+      COUNTS[i].reset();
+      LAST_FAILURES.set(i, null);
+    }
+  }
+
+  /**
+   * An exception that never fills in its stack trace and formats its message only when it is asked for.
+   */
+  static final class DiagnosticException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Failure failure;
+
+    private final Object[] arguments;
+
+    private String message;
+
+    DiagnosticException(final Failure failure, final Throwable cause, final Object... arguments)
+    {
+      super(null, cause, false, false);
+      this.failure = failure;
+      this.arguments = arguments;
+    }
+
+    Failure failure()
+    {
+      return this.failure;
+    }
+
+    @Override
+    public String getMessage()
+    {
+      if (this.message == null) {
+        this.message = this.failure.template.format(this.arguments);
+      }
+      return this.message;
+    }
+  }
+
+  /**
+   * A ClassCastException that never fills in its stack trace and formats its message only when it is asked
+   * for. ClassCastException has no constructor that disables the stack trace, so this one skips filling it.
+   */
+  private static final class StacklessClassCastException extends ClassCastException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> actualType;
+
+    private final Class<?> expectedType;
+
+    StacklessClassCastException(final Class<?> actualType, final Class<?> expectedType)
+    {
+      this.actualType = actualType;
+      this.expectedType = expectedType;
+    }
+
+    @Override
+    public String getMessage()
+    {
+      return Failure.CLASS_CAST.template.format(this.actualType, this.expectedType);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,399 @@
+package sandbox.example;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <p>Finds heap pollution like the Integer type value that {@link TypeErasureDemonstration#neverDoThis()}
+ * puts into a {@code List<String>}. Starting from a root object, the scanner follows the fields of every
+ * reachable object and the elements of every reachable collection, map and array. Whenever a collection or
+ * a map is referenced by a field whose declared type has type arguments, such as {@code List<String>}, its
+ * elements are checked against those type arguments and every mismatch is reported. The check carries on
+ * into nested collections and maps, so the lists in the values of a {@code Map<String, List<String>>}
+ * field are checked too.</p>
+ * <p>The declared types of the fields of each class are resolved once into {@link TypeDescriptor} trees
+ * and kept for all later scans. The walk uses an explicit stack of iterators instead of recursion, so its
+ * memory is bounded by the depth of the graph plus one identity entry per visited container or object;
+ * elements such as Strings and boxed numbers are checked but never tracked.</p>
+ */
+final class HeapPollutionScanner {
+
+  private static final ClassValue<Boolean> TRAVERSABLE = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type)
+    {
+      return computeTraversable(type);
+    }
+  };
+
+  private HeapPollutionScanner()
+  {
+  }
+
+  /**
+   * Scans the object graph reachable from the given root.
+   * @param root the object to start scanning at
+   * @return every violation found, in the order the scan found them
+   */
+  static List<Violation> scan(final Object root)
+  {
+    final List<Violation> violations = new ArrayList<>();
+    scan(root, violations::add);
+    return violations;
+  }
+
+  /**
+   * Scans the object graph reachable from the given root, handing every violation to the given sink as
+   * soon as it is found so that the violations do not need to be kept in memory. Every violation is also
+   * counted by the {@link DemonstrationMetrics}.
+   * @param root the object to start scanning at
+   * @param sink the receiver of the violations found
+   */
+  static void scan(final Object root, final Consumer<Violation> sink)
+  {
+    final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Deque<Frame> frames = new ArrayDeque<>();
+    final Consumer<Violation> countingSink = violation -> {
+      DemonstrationMetrics.get().recordTypeViolation();
+      sink.accept(violation);
+    };
+    push(root, null, null, TypeDescriptor.ANY, visited, frames);
+
+    while (!frames.isEmpty()) {
+      final Frame frame = frames.peek();
+      if (!frame.hasNext()) {
+        frames.pop();
+        continue;
+      }
+      final Object child = frame.next(countingSink);
+      push(child, frame.owner(), frame.field(), frame.type(), visited, frames);
+    }
+  }
+
+  private static void push(final Object value, final Object owner, final Field field, final TypeDescriptor type,
+    final Set<Object> visited, final Deque<Frame> frames)
+  {
+    if (value == null || !isTraversable(value.getClass()) || !visited.add(value)) {
+      return;
+    }
+
+    if (value instanceof Collection) {
+      frames.push(new ElementsFrame(owner, field, ((Collection<?>) value).iterator(), type.elements));
+    } else if (value instanceof Map) {
+      frames.push(new EntriesFrame(owner, field, ((Map<?, ?>) value).entrySet().iterator(), type));
+    } else if (value instanceof Object[]) {
+      frames.push(new ElementsFrame(owner, field, Arrays.asList((Object[]) value).iterator(), type.elements));
+    } else if (!value.getClass().isArray()) {
+      frames.push(new FieldsFrame(value, TypeDescriptor.fieldsOf(value.getClass())));
+    }
+  }
+
+  /**
+   * Tells whether objects of the given class can reference other objects worth scanning. Collections,
+   * maps and arrays of objects are walked through their public API; the internals of any other JDK class
+   * are never walked.
+   */
+  static boolean isTraversable(final Class<?> type)
+  {
+    return TRAVERSABLE.get(type);
+  }
+
+  private static boolean computeTraversable(final Class<?> type)
+  {
+    if (type.isArray()) {
+      return !type.getComponentType().isPrimitive();
+    }
+    if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+      return true;
+    }
+    final String name = type.getName();
+    return !(name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+      || name.startsWith("sun.") || name.startsWith("com.sun."));
+  }
+
+  /**
+   * An element of a collection or a map whose runtime class does not match the type argument declared by
+   * the field that references the collection or the map.
+   */
+  static final class Violation {
+
+    private final Object owner;
+
+    private final Field field;
+
+    private final int index;
+
+    private final Class<?> actualType;
+
+    private final Class<?> expectedType;
+
+    Violation(final Object owner, final Field field, final int index, final Class<?> actualType,
+      final Class<?> expectedType)
+    {
+      this.owner = owner;
+      this.field = field;
+      this.index = index;
+      this.actualType = actualType;
+      this.expectedType = expectedType;
+    }
+
+    /** @return the object whose field references the polluted collection or map */
+    Object owner()
+    {
+      return this.owner;
+    }
+
+    /** @return the field that references the polluted collection or map */
+    Field field()
+    {
+      return this.field;
+    }
+
+    /** @return the position of the polluted element in the iteration order of the collection or map */
+    int index()
+    {
+      return this.index;
+    }
+
+    /** @return the runtime class of the polluted element */
+    Class<?> actualType()
+    {
+      return this.actualType;
+    }
+
+    /** @return the class that the declared type argument requires */
+    Class<?> expectedType()
+    {
+      return this.expectedType;
+    }
+
+    @Override
+    public String toString()
+    {
+      return this.field.getDeclaringClass().getName() + '.' + this.field.getName() + '[' + this.index + "] holds "
+        + this.actualType.getName() + " where " + this.expectedType.getName() + " is declared";
+    }
+  }
+
+  /**
+   * A position in the walk: the remaining children of one object, collection or map.
+   */
+  private abstract static class Frame {
+
+    abstract boolean hasNext();
+
+    /**
+     * Returns the next child, reporting it first when it violates the declared type.
+     */
+    abstract Object next(Consumer<Violation> sink);
+
+    /** @return the object whose field references the child returned last, if any */
+    abstract Object owner();
+
+    /** @return the field that references the child returned last, if any */
+    abstract Field field();
+
+    /** @return the declared type of the child returned last */
+    abstract TypeDescriptor type();
+  }
+
+  private static final class FieldsFrame extends Frame {
+
+    private final Object owner;
+
+    private final TypeDescriptor.FieldDescriptor[] fields;
+
+    private int next;
+
+    FieldsFrame(final Object owner, final TypeDescriptor.FieldDescriptor[] fields)
+    {
+      this.owner = owner;
+      this.fields = fields;
+    }
+
+    @Override
+    boolean hasNext()
+    {
+      return this.next < this.fields.length;
+    }
+
+    @Override
+    Object next(final Consumer<Violation> sink)
+    {
+      return this.fields[this.next++].get(this.owner);
+    }
+
+    @Override
+    Object owner()
+    {
+      return this.owner;
+    }
+
+    @Override
+    Field field()
+    {
+      return this.fields[this.next - 1].field;
+    }
+
+    @Override
+    TypeDescriptor type()
+    {
+      return this.fields[this.next - 1].type;
+    }
+  }
+
+  /**
+   * The elements of a collection or an array. A nested collection or map among them is reported as part of
+   * the field that references the outer one.
+   */
+  private static final class ElementsFrame extends Frame {
+
+    private final Object owner;
+
+    private final Field field;
+
+    private final Iterator<?> elements;
+
+    private final TypeDescriptor elementType;
+
+    private int index;
+
+    ElementsFrame(final Object owner, final Field field, final Iterator<?> elements,
+      final TypeDescriptor elementType)
+    {
+      this.owner = owner;
+      this.field = field;
+      this.elements = elements;
+      this.elementType = elementType;
+    }
+
+    @Override
+    boolean hasNext()
+    {
+      return this.elements.hasNext();
+    }
+
+    @Override
+    Object next(final Consumer<Violation> sink)
+    {
+      final Object element = this.elements.next();
+      if (!this.elementType.accepts(element)) {
+        sink.accept(new Violation(this.owner, this.field, this.index, element.getClass(),
+          this.elementType.erasure));
+      }
+      this.index++;
+      return element;
+    }
+
+    @Override
+    Object owner()
+    {
+      return this.owner;
+    }
+
+    @Override
+    Field field()
+    {
+      return this.field;
+    }
+
+    @Override
+    TypeDescriptor type()
+    {
+      return this.elementType;
+    }
+  }
+
+  private static final class EntriesFrame extends Frame {
+
+    private final Object owner;
+
+    private final Field field;
+
+    private final Iterator<? extends Map.Entry<?, ?>> entries;
+
+    private final TypeDescriptor mapType;
+
+    private Object pendingValue;
+
+    private boolean hasPendingValue;
+
+    private boolean returnedValue;
+
+    private int index;
+
+    EntriesFrame(final Object owner, final Field field, final Iterator<? extends Map.Entry<?, ?>> entries,
+      final TypeDescriptor mapType)
+    {
+      this.owner = owner;
+      this.field = field;
+      this.entries = entries;
+      this.mapType = mapType;
+    }
+
+    @Override
+    boolean hasNext()
+    {
+      return this.hasPendingValue || this.entries.hasNext();
+    }
+
+    @Override
+    Object next(final Consumer<Violation> sink)
+    {
+      if (this.hasPendingValue) {
+        this.hasPendingValue = false;
+        this.returnedValue = true;
+        final Object value = this.pendingValue;
+        this.pendingValue = null;
+        return value;
+      }
+
+      final Map.Entry<?, ?> entry = this.entries.next();
+      final Object key = entry.getKey();
+      final Object value = entry.getValue();
+      this.check(key, this.mapType.elements, sink);
+      this.check(value, this.mapType.values, sink);
+      this.index++;
+      this.pendingValue = value;
+      this.hasPendingValue = true;
+      this.returnedValue = false;
+      return key;
+    }
+
+    private void check(final Object element, final TypeDescriptor expectedType, final Consumer<Violation> sink)
+    {
+      if (!expectedType.accepts(element)) {
+        sink.accept(new Violation(this.owner, this.field, this.index, element.getClass(), expectedType.erasure));
+      }
+    }
+
+    @Override
+    Object owner()
+    {
+      return this.owner;
+    }
+
+    @Override
+    Field field()
+    {
+      return this.field;
+    }
+
+    @Override
+    TypeDescriptor type()
+    {
+      return this.returnedValue ? this.mapType.values : this.mapType.elements;
+    }
+  }
+}
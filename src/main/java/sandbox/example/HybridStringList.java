@@ -0,0 +1,191 @@
+package sandbox.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * <p>A list for the strings collection of a {@link TypeErasureDemonstration} that expects Integer type
+ * values to be injected through the erased path, like {@link TypeErasureDemonstration#neverDoThis()} does.
+ * String type values, and any other type of value, are kept in a reference array, while Integer type values
+ * are unboxed into an int array. A bitmap with one bit per position tells which of the two arrays holds the
+ * element at that position, so an injected int costs four bytes and a bit instead of a reference and a
+ * boxed Integer with its object header. The erased {@code add(Object)} call still receives a box, but
+ * that box is garbage as soon as the call returns instead of living as long as the list.</p>
+ * <p>The element type is a type variable rather than String, so that the erased {@code add(Object)} method
+ * is the method itself and not a bridge method that casts to String. Create it as a
+ * {@code HybridStringList<String>} to use it as the strings collection.</p>
+ * <p>The position of an element in its array is the number of elements of the same kind before it, which
+ * is the count of ints stored before its bitmap word plus the bits set before it in that word, so
+ * {@link #get(int)} is constant time. Because the two arrays are kept dense, the list only supports adding
+ * to the end, replacing an element with one of the same kind, and clearing. Reading an int back through
+ * {@link #get(int)} or the iterator boxes it again; {@link StringsRenderer} renders the ints without
+ * boxing them.</p>
+ * @param <E> the declared type of the elements
+ */
+final class HybridStringList<E> extends AbstractList<E> implements RandomAccess {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private Object[] references;
+
+  private int referenceCount;
+
+  private int[] ints = new int[0];
+
+  private int intCount;
+
+  /** One bit per position, set when the element at that position is in the int array. */
+  private long[] intPositions;
+
+  /** For every word of the bitmap, the number of ints at the positions before that word. */
+  private int[] intsBefore;
+
+  private int size;
+
+  HybridStringList()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  HybridStringList(final int initialCapacity)
+  {
+    this.references = new Object[initialCapacity];
+    final int words = Math.max(1, (initialCapacity + Long.SIZE - 1) >>> 6);
+    this.intPositions = new long[words];
+    this.intsBefore = new int[words];
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public E get(final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    final int intIndex = this.intIndexOf(index);
+    return this.isIntAt(index)
+      ? (E) Integer.valueOf(this.ints[intIndex])
+      : (E) this.references[index - intIndex];
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public boolean add(final E value)
+  {
+    final int word = this.size >>> 6;
+    if (word == this.intPositions.length) {
+      this.intPositions = Arrays.copyOf(this.intPositions, word << 1);
+      this.intsBefore = Arrays.copyOf(this.intsBefore, word << 1);
+    }
+    if ((this.size & (Long.SIZE - 1)) == 0) {
+      this.intsBefore[word] = this.intCount;
+    }
+
+    if (isInteger(value)) {
+      if (this.intCount == this.ints.length) {
+        this.ints = Arrays.copyOf(this.ints, grownCapacity(this.ints.length, this.intCount + 1));
+      }
+      this.ints[this.intCount++] = (Integer) value;
+      this.intPositions[word] |= 1L << this.size;
+    } else {
+      if (this.referenceCount == this.references.length) {
+        this.references = Arrays.copyOf(this.references, grownCapacity(this.references.length,
+          this.referenceCount + 1));
+      }
+      this.references[this.referenceCount++] = value;
+    }
+    this.size++;
+    this.modCount++;
+    return true;
+  }
+
+  /**
+   * Replaces the element at the given position with a value of the same kind, that is an Integer type
+   * value with an Integer type value or any other value with a value that is not an Integer type value.
+   * @throws UnsupportedOperationException if the value is not of the same kind as the element it replaces
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public E set(final int index, final E value)
+  {
+    Objects.checkIndex(index, this.size);
+    if (isInteger(value) != this.isIntAt(index)) {
+      throw new UnsupportedOperationException("Cannot replace an Integer type value with another type of "
+        + "value or the other way around at position " + index);
+    }
+    final int intIndex = this.intIndexOf(index);
+    if (this.isIntAt(index)) {
+      final int previous = this.ints[intIndex];
+      this.ints[intIndex] = (Integer) value;
+      return (E) Integer.valueOf(previous);
+    }
+    final Object previous = this.references[index - intIndex];
+    this.references[index - intIndex] = value;
+    return (E) previous;
+  }
+
+  @Override
+  public void clear()
+  {
+    Arrays.fill(this.references, 0, this.referenceCount, null);
+    Arrays.fill(this.intPositions, 0, (this.size + Long.SIZE - 1) >>> 6, 0L);
+    this.referenceCount = 0;
+    this.intCount = 0;
+    this.size = 0;
+    this.modCount++;
+  }
+
+  /**
+   * @param index the position of an element of this list
+   * @return true when the element at the given position is an Integer type value stored as an int
+   */
+  boolean isIntAt(final int index)
+  {
+    return (this.intPositions[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Reads an Integer type value without boxing it.
+   * @param index the position of an element for which {@link #isIntAt(int)} is true
+   * @return the int value of the element at the given position
+   */
+  int getInt(final int index)
+  {
+    return this.ints[this.intIndexOf(index)];
+  }
+
+  /**
+   * Reads an element that is not an Integer type value.
+   * @param index the position of an element for which {@link #isIntAt(int)} is false
+   * @return the element at the given position
+   */
+  Object getReference(final int index)
+  {
+    return this.references[index - this.intIndexOf(index)];
+  }
+
+  /**
+   * @return the number of ints before the given position, which is the position of the element at the
+   *   given position in the int array if it is an int
+   */
+  private int intIndexOf(final int index)
+  {
+    final int word = index >>> 6;
+    return this.intsBefore[word] + Long.bitCount(this.intPositions[word] & ((1L << index) - 1));
+  }
+
+  private static boolean isInteger(final Object value)
+  {
+    return value != null && value.getClass() == Integer.class;
+  }
+
+  private static int grownCapacity(final int capacity, final int minimumCapacity)
+  {
+    return Math.max(minimumCapacity, capacity + (capacity >> 1) + 1);
+  }
+}
@@ -0,0 +1,254 @@
+package sandbox.example;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Links methods that take no arguments into reusable invokers, keyed by receiver type, method name and
+ * method type. Once linked, an invocation does not look up the method, check access or build a varargs
+ * array again. Every invoker also knows the receiver type it was linked against, so a caller can detect
+ * a receiver of the wrong type before the call instead of relying on an IllegalArgumentException.
+ */
+final class InvokerCache {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private static final ConcurrentMap<Key, Invoker> INVOKERS = new ConcurrentHashMap<>();
+
+  private static final ConcurrentMap<Key, IntInvoker> INT_INVOKERS = new ConcurrentHashMap<>();
+
+  /**
+   * The invoker for {@link String#length()}. The call goes through a generated functional interface, so
+   * it neither allocates nor boxes the result.
+   */
+  static final IntInvoker STRING_LENGTH;
+
+  static {
+    try {
+      STRING_LENGTH = intInvoker(String.class, "length");
+    } catch (NoSuchMethodException | IllegalAccessException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  private InvokerCache()
+  {
+  }
+
+  /**
+   * Returns the invoker for a method that takes no arguments, linking it on first use.
+   * @param receiverType the type of object the method is invoked on
+   * @param methodName the name of the method
+   * @param methodType the type of the method, which declares only a return type
+   * @return the invoker for the method
+   * @throws NoSuchMethodException if the receiver type has no such method
+   * @throws IllegalAccessException if the method is not accessible
+   */
+  static Invoker invoker(final Class<?> receiverType, final String methodName, final MethodType methodType)
+    throws NoSuchMethodException, IllegalAccessException
+  {
+    final Key key = new Key(receiverType, methodName, methodType);
+    final Invoker cached = INVOKERS.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final MethodHandle handle = LOOKUP.findVirtual(receiverType, methodName, methodType).asType(GENERIC_TYPE);
+    final Invoker linked = new Invoker(receiverType, methodName, handle);
+    final Invoker raced = INVOKERS.putIfAbsent(key, linked);
+    return raced == null ? linked : raced;
+  }
+
+  /**
+   * Returns the invoker for a method that takes no arguments and returns an int, linking it on first use.
+   * @param receiverType the type of object the method is invoked on
+   * @param methodName the name of the method
+   * @return the invoker for the method
+   * @throws NoSuchMethodException if the receiver type has no such method
+   * @throws IllegalAccessException if the method is not accessible
+   */
+  static IntInvoker intInvoker(final Class<?> receiverType, final String methodName)
+    throws NoSuchMethodException, IllegalAccessException
+  {
+    final MethodType methodType = MethodType.methodType(int.class);
+    final Key key = new Key(receiverType, methodName, methodType);
+    final IntInvoker cached = INT_INVOKERS.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    final MethodHandle target = LOOKUP.findVirtual(receiverType, methodName, methodType);
+    final IntInvoker linked = new IntInvoker(receiverType, methodName, toIntFunction(receiverType, target));
+    final IntInvoker raced = INT_INVOKERS.putIfAbsent(key, linked);
+    return raced == null ? linked : raced;
+  }
+
+  /**
+   * Spins a {@link ToIntFunction} implementation that calls the target method directly, the same way the
+   * compiler links a method reference such as {@code String::length}.
+   */
+  @SuppressWarnings("unchecked")
+  private static ToIntFunction<Object> toIntFunction(final Class<?> receiverType, final MethodHandle target)
+  {
+    try {
+      final CallSite callSite = LambdaMetafactory.metafactory(
+        LOOKUP,
+        "applyAsInt",
+        MethodType.methodType(ToIntFunction.class),
+        MethodType.methodType(int.class, Object.class),
+        target,
+        MethodType.methodType(int.class, receiverType));
+      return (ToIntFunction<Object>) callSite.getTarget().invokeExact();
+    } catch (Throwable ex) {
+      throw new IllegalStateException("Cannot link " + target, ex);
+    }
+  }
+
+  /**
+   * A linked method that takes no arguments. The result is returned as an Object, so primitive results
+   * are boxed; use an {@link IntInvoker} where that matters.
+   */
+  static final class Invoker {
+
+    private final Class<?> receiverType;
+
+    private final String methodName;
+
+    private final MethodHandle handle;
+
+    private Invoker(final Class<?> receiverType, final String methodName, final MethodHandle handle)
+    {
+      this.receiverType = receiverType;
+      this.methodName = methodName;
+      this.handle = handle;
+    }
+
+    Class<?> receiverType()
+    {
+      return this.receiverType;
+    }
+
+    String methodName()
+    {
+      return this.methodName;
+    }
+
+    /**
+     * Tells whether the method can be invoked on the given object.
+     * @param receiver the object to invoke the method on
+     * @return true when the object is an instance of the receiver type
+     */
+    boolean accepts(final Object receiver)
+    {
+      return this.receiverType.isInstance(receiver);
+    }
+
+    /**
+     * Invokes the method on the given object.
+     * @param receiver the object to invoke the method on
+     * @return the result of the method
+     * @throws Throwable anything thrown by the method, or a ClassCastException when the receiver is not
+     *   accepted by this invoker
+     */
+    Object invoke(final Object receiver) throws Throwable
+    {
+      return this.handle.invokeExact(receiver);
+    }
+  }
+
+  /**
+   * A linked method that takes no arguments and returns an int.
+   */
+  static final class IntInvoker {
+
+    private final Class<?> receiverType;
+
+    private final String methodName;
+
+    private final ToIntFunction<Object> function;
+
+    private IntInvoker(final Class<?> receiverType, final String methodName, final ToIntFunction<Object> function)
+    {
+      this.receiverType = receiverType;
+      this.methodName = methodName;
+      this.function = function;
+    }
+
+    Class<?> receiverType()
+    {
+      return this.receiverType;
+    }
+
+    String methodName()
+    {
+      return this.methodName;
+    }
+
+    /**
+     * Tells whether the method can be invoked on the given object.
+     * @param receiver the object to invoke the method on
+     * @return true when the object is an instance of the receiver type
+     */
+    boolean accepts(final Object receiver)
+    {
+      return this.receiverType.isInstance(receiver);
+    }
+
+    /**
+     * Invokes the method on the given object.
+     * @param receiver the object to invoke the method on
+     * @return the result of the method
+     * @throws ClassCastException if the receiver is not accepted by this invoker
+     */
+    int applyAsInt(final Object receiver)
+    {
+      return this.function.applyAsInt(receiver);
+    }
+  }
+
+  private static final class Key {
+
+    private final Class<?> receiverType;
+
+    private final String methodName;
+
+    private final MethodType methodType;
+
+    private Key(final Class<?> receiverType, final String methodName, final MethodType methodType)
+    {
+      this.receiverType = receiverType;
+      this.methodName = methodName;
+      this.methodType = methodType;
+    }
+
+    @Override
+    public boolean equals(final Object other)
+    {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) other;
+      return this.receiverType == key.receiverType
+        && this.methodName.equals(key.methodName)
+        && this.methodType.equals(key.methodType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(this.receiverType, this.methodName, this.methodType);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package sandbox.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A concurrent histogram of latencies in nanoseconds with logarithmic buckets, in the style of an HDR
+ * histogram: every power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded
+ * value is reported with an error of at most 12.5% across the whole range of a long.</p>
+ * <p>Recording a value is a bucket index computation and an atomic increment; it never allocates.</p>
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one latency.
+   * @param nanos the latency in nanoseconds; negative values are recorded as zero
+   */
+  void record(final long nanos)
+  {
+    final long value = Math.max(nanos, 0);
+    this.counts.incrementAndGet(bucketOf(value));
+    if (value > this.max.get()) {
+      this.max.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * Copies the current counts. Values recorded while the copy is made may or may not be included.
+   * @return the snapshot of this histogram
+   */
+  Snapshot snapshot()
+  {
+    final long[] copy = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = this.counts.get(i);
+      total += copy[i];
+    }
+    return new Snapshot(copy, total, this.max.get());
+  }
+
+  /**
+   * Forgets every recorded value.
+   */
+  void reset()
+  {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    }
+    this.max.set(0);
+  }
+
+  static int bucketOf(final long value)
+  {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+  }
+
+  /**
+   * @return the largest value that falls into the given bucket
+   */
+  static long highestValueOf(final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+    final long lowest = (1L << exponent) | ((long) (bucket & (SUB_BUCKETS - 1)) << (exponent - SUB_BUCKET_BITS));
+    return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+
+  /**
+   * An immutable copy of the counts of a histogram.
+   */
+  static final class Snapshot {
+
+    private final long[] counts;
+
+    private final long count;
+
+    private final long max;
+
+    private Snapshot(final long[] counts, final long count, final long max)
+    {
+      this.counts = counts;
+      this.count = count;
+      this.max = max;
+    }
+
+    /** @return the number of recorded values */
+    long count()
+    {
+      return this.count;
+    }
+
+    /** @return the largest recorded value */
+    long max()
+    {
+      return this.max;
+    }
+
+    /**
+     * @param fraction the fraction of values, between 0 and 1, that are at most the returned value
+     * @return the upper bound of the bucket that holds the requested percentile, or zero when empty
+     */
+    long percentile(final double fraction)
+    {
+      if (this.count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+      long seen = 0;
+      for (int i = 0; i < this.counts.length; i++) {
+        seen += this.counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValueOf(i), this.max);
+        }
+      }
+      return this.max;
+    }
+  }
+}
@@ -0,0 +1,363 @@
+package sandbox.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * <p>A list of String type values that packs the characters of all its elements, one byte per character,
+ * into shared byte array slabs of at most {@value #SLAB_SIZE} bytes, instead of keeping a String object and
+ * a byte array with their headers for every element. Only values whose characters are all in the Latin-1
+ * range can be stored, which covers everything that {@link TypeErasureDemonstration#initializeStrings()}
+ * adds.</p>
+ * <p>Every entry starts with its length as a variable length integer. With prefix compression, which is
+ * the default, an entry also records how many leading characters it shares with the entry before it and
+ * stores only the rest, so "string value 10" after "string value 1" takes three bytes. Every
+ * {@value #RESTART_INTERVAL}th entry is a restart point that is stored in full, and only the positions of
+ * the restart points are indexed, so {@link #get(int)} decodes at most {@value #RESTART_INTERVAL} entries.
+ * Reading the elements in order through {@link #cursor()} or the iterator decodes every entry only
+ * once.</p>
+ * <p>The list only supports adding to the end and clearing. Like {@link CheckedStringList}, it rejects a
+ * value that is not a String type value with a ClassCastException at the moment it is inserted.</p>
+ */
+final class Latin1StringPool extends AbstractList<String> implements RandomAccess {
+
+  /** The largest size of a slab, which also limits the length of a single element. */
+  static final int SLAB_SIZE = 1 << 16;
+
+  /** The number of entries from one restart point to the next. */
+  static final int RESTART_INTERVAL = 16;
+
+  private static final int INITIAL_SLAB_SIZE = 256;
+
+  /** The largest number of bytes that the header of an entry takes: two variable length integers. */
+  private static final int MAXIMUM_HEADER_SIZE = 6;
+
+  /** Written where an entry would start when the rest of the slab is unused and the next slab follows. */
+  private static final byte END_OF_SLAB = 0;
+
+  private final boolean prefixCompression;
+
+  private byte[][] slabs = new byte[1][];
+
+  private int slabCount;
+
+  /** The position in the last slab at which the next entry is written. */
+  private int position;
+
+  /** The slab in the upper and the position within the slab in the lower half of every restart point. */
+  private long[] restarts = new long[8];
+
+  /** The characters of the last entry, which the next entry is compared with. */
+  private byte[] previous = new byte[32];
+
+  private int previousLength;
+
+  private int size;
+
+  Latin1StringPool()
+  {
+    this(true);
+  }
+
+  /**
+   * @param prefixCompression whether an entry stores only the characters it does not share with the
+   *   entry before it
+   */
+  Latin1StringPool(final boolean prefixCompression)
+  {
+    this.prefixCompression = prefixCompression;
+  }
+
+  @Override
+  public String get(final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    final Cursor cursor = this.cursor(index);
+    cursor.next();
+    return cursor.toString();
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @throws NullPointerException if the value is null
+   * @throws IllegalArgumentException if the value holds a character outside of the Latin-1 range or is
+   *   too long for a slab
+   */
+  @Override
+  public boolean add(final String value)
+  {
+    final int length = value.length();
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) > 0xFF) {
+        throw new IllegalArgumentException("Not a Latin-1 character at position " + i + " of the value");
+      }
+    }
+    if (length > SLAB_SIZE - MAXIMUM_HEADER_SIZE) {
+      throw new IllegalArgumentException("A value of " + length + " characters does not fit in a slab");
+    }
+
+    final boolean restart = this.size % RESTART_INTERVAL == 0;
+    final int shared = restart || !this.prefixCompression ? 0 : this.sharedPrefixLength(value);
+    final int suffixLength = length - shared;
+    final int entrySize = varIntSize(suffixLength + 1) + (this.prefixCompression ? varIntSize(shared) : 0)
+      + suffixLength;
+    final byte[] slab = this.slabFor(entrySize);
+    if (restart) {
+      final int restartIndex = this.size / RESTART_INTERVAL;
+      if (restartIndex == this.restarts.length) {
+        this.restarts = Arrays.copyOf(this.restarts, restartIndex << 1);
+      }
+      this.restarts[restartIndex] = (long) (this.slabCount - 1) << 32 | this.position;
+    }
+
+    // The length is stored plus one, so that a zero byte can mark the end of a slab.
+    int offset = writeVarInt(slab, this.position, suffixLength + 1);
+    if (this.prefixCompression) {
+      offset = writeVarInt(slab, offset, shared);
+    }
+    if (this.previous.length < length) {
+      this.previous = Arrays.copyOf(this.previous, Math.max(length, this.previous.length << 1));
+    }
+    for (int i = shared; i < length; i++) {
+      final byte character = (byte) value.charAt(i);
+      slab[offset++] = character;
+      this.previous[i] = character;
+    }
+    this.previousLength = length;
+    this.position = offset;
+    this.size++;
+    this.modCount++;
+    return true;
+  }
+
+  @Override
+  public void clear()
+  {
+    this.slabs = new byte[1][];
+    this.slabCount = 0;
+    this.position = 0;
+    this.previousLength = 0;
+    this.size = 0;
+    this.modCount++;
+  }
+
+  /**
+   * Reads the elements in order from the slabs with a single cursor, creating a String type value for each
+   * of them. A short-lived String copies the characters into a StringBuilder faster than appending a cursor
+   * char by char does, so this is also how the pool is rendered forwards.
+   */
+  @Override
+  public Iterator<String> iterator()
+  {
+    final Cursor cursor = this.cursor();
+    return new Iterator<>() {
+
+      @Override
+      public boolean hasNext()
+      {
+        return cursor.hasNext();
+      }
+
+      @Override
+      public String next()
+      {
+        if (!cursor.next()) {
+          throw new NoSuchElementException();
+        }
+        return cursor.toString();
+      }
+    };
+  }
+
+  /**
+   * @return a cursor before the first element of this list
+   */
+  Cursor cursor()
+  {
+    return new Cursor(this, 0, 0, 0);
+  }
+
+  /**
+   * @param index the position of the element that the first call to {@link Cursor#next()} moves to
+   * @return a cursor before the element at the given position
+   */
+  Cursor cursor(final int index)
+  {
+    final long restart = this.restarts[index / RESTART_INTERVAL];
+    final Cursor cursor = new Cursor(this, index - index % RESTART_INTERVAL, (int) (restart >>> 32), (int) restart);
+    while (cursor.index < index) {
+      cursor.next();
+    }
+    return cursor;
+  }
+
+  private int sharedPrefixLength(final String value)
+  {
+    final int limit = Math.min(this.previousLength, value.length());
+    int shared = 0;
+    while (shared < limit && this.previous[shared] == (byte) value.charAt(shared)) {
+      shared++;
+    }
+    return shared;
+  }
+
+  /**
+   * Returns the slab to write an entry of the given size to at {@link #position}, growing the last slab
+   * up to {@value #SLAB_SIZE} bytes first, and starting a new slab only when the entry does not fit in it.
+   */
+  private byte[] slabFor(final int entrySize)
+  {
+    if (this.slabCount > 0) {
+      final byte[] last = this.slabs[this.slabCount - 1];
+      if (this.position + entrySize <= last.length) {
+        return last;
+      }
+      if (this.position + entrySize <= SLAB_SIZE) {
+        final int length = Math.min(SLAB_SIZE, Math.max(this.position + entrySize, last.length << 1));
+        return this.slabs[this.slabCount - 1] = Arrays.copyOf(last, length);
+      }
+      if (this.position < last.length) {
+        last[this.position] = END_OF_SLAB;
+      }
+    }
+    if (this.slabCount == this.slabs.length) {
+      this.slabs = Arrays.copyOf(this.slabs, this.slabCount << 1);
+    }
+    this.position = 0;
+    return this.slabs[this.slabCount++] = new byte[Math.max(INITIAL_SLAB_SIZE, entrySize)];
+  }
+
+  private static int varIntSize(final int value)
+  {
+    return value < 0x80 ? 1 : value < 0x4000 ? 2 : 3;
+  }
+
+  private static int writeVarInt(final byte[] slab, final int offset, final int value)
+  {
+    int position = offset;
+    int remaining = value;
+    while (remaining >= 0x80) {
+      slab[position++] = (byte) (remaining | 0x80);
+      remaining >>>= 7;
+    }
+    slab[position++] = (byte) remaining;
+    return position;
+  }
+
+  /**
+   * <p>Reads the elements of a pool in order without creating a String for them. The cursor itself is the
+   * characters of the element it is on, so it can be appended or reversed like any other CharSequence, but
+   * it changes when the cursor moves on, and {@link #toString()} has to be called to keep them.</p>
+   * <p>Moving the cursor decodes the entry into a buffer that belongs to the cursor, so every thread needs
+   * its own cursor.</p>
+   */
+  static final class Cursor implements CharSequence {
+
+    private final Latin1StringPool pool;
+
+    /** The position of the element that the next call to {@link #next()} moves to. */
+    private int index;
+
+    private int slab;
+
+    private int offset;
+
+    private byte[] characters = new byte[32];
+
+    private int length;
+
+    private Cursor(final Latin1StringPool pool, final int index, final int slab, final int offset)
+    {
+      this.pool = pool;
+      this.index = index;
+      this.slab = slab;
+      this.offset = offset;
+    }
+
+    /**
+     * @return true when there is an element after the one the cursor is on
+     */
+    boolean hasNext()
+    {
+      return this.index < this.pool.size;
+    }
+
+    /**
+     * Moves to the next element.
+     * @return false when there is no next element, in which case the cursor stays where it is
+     */
+    boolean next()
+    {
+      if (!this.hasNext()) {
+        return false;
+      }
+      byte[] bytes = this.pool.slabs[this.slab];
+      if (this.offset == bytes.length || bytes[this.offset] == END_OF_SLAB) {
+        bytes = this.pool.slabs[++this.slab];
+        this.offset = 0;
+      }
+
+      final int suffixLength = this.readVarInt(bytes) - 1;
+      final int shared = this.pool.prefixCompression ? this.readVarInt(bytes) : 0;
+      this.length = shared + suffixLength;
+      if (this.characters.length < this.length) {
+        this.characters = Arrays.copyOf(this.characters, Math.max(this.length, this.characters.length << 1));
+      }
+      System.arraycopy(bytes, this.offset, this.characters, shared, suffixLength);
+      this.offset += suffixLength;
+      this.index++;
+      return true;
+    }
+
+    private int readVarInt(final byte[] bytes)
+    {
+      int value = 0;
+      int shift = 0;
+      byte current;
+      do {
+        current = bytes[this.offset++];
+        value |= (current & 0x7F) << shift;
+        shift += 7;
+      } while (current < 0);
+      return value;
+    }
+
+    @Override
+    public int length()
+    {
+      return this.length;
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+      Objects.checkIndex(index, this.length);
+      return (char) (this.characters[index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+      return this.toString().subSequence(start, end);
+    }
+
+    /**
+     * @return the element the cursor is on
+     */
+    @Override
+    public String toString()
+    {
+      return new String(this.characters, 0, this.length, StandardCharsets.ISO_8859_1);
+    }
+  }
+}
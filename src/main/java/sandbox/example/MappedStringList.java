@@ -0,0 +1,264 @@
+package sandbox.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * <p>A list of String type values that keeps its elements outside of the Java heap, in memory-mapped
+ * temporary files, so that a strings collection of tens of millions of elements neither fills the heap nor
+ * has to be traced by every garbage collection. The elements are stored as UTF-8 bytes, one after the other,
+ * in a data file that is mapped in segments of {@value #SEGMENT_SIZE} bytes. An index file holds the
+ * position and the length of every element, so {@link #get(int)} finds an element in constant time and
+ * decodes it into a String only when it is asked for.</p>
+ * <p>The list only supports adding to the end and clearing. Like {@link CheckedStringList}, it rejects a
+ * value that is not a String type value with a ClassCastException at the moment it is inserted, since only
+ * text can be stored in the file. Unpaired surrogates are stored as '?', just like
+ * {@link String#getBytes(java.nio.charset.Charset)} encodes them.</p>
+ * <p>The temporary files are deleted when the list is closed, or as soon as they are opened on platforms
+ * that can remove an open file. The mapped memory itself is released once the closed list is garbage
+ * collected.</p>
+ */
+final class MappedStringList extends AbstractList<String> implements RandomAccess, Closeable {
+
+  private static final int SEGMENT_BITS = 26;
+
+  /** The size of a mapped segment of the data file, which is also the largest size of a single element. */
+  static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+
+  /** A long with the position of an element in the data file, followed by an int with its length. */
+  private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+  private static final int INDEX_SEGMENT_ENTRIES = 1 << 20;
+
+  /** The length recorded for a null element. */
+  private static final int NULL_LENGTH = -1;
+
+  private final FileChannel data;
+
+  private final FileChannel index;
+
+  private final List<MappedByteBuffer> dataSegments = new ArrayList<>();
+
+  private final List<MappedByteBuffer> indexSegments = new ArrayList<>();
+
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+    .onMalformedInput(CodingErrorAction.REPLACE)
+    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  /** The position in the data file at which the next element is written. */
+  private long dataPosition;
+
+  private int size;
+
+  private boolean closed;
+
+  /**
+   * Creates an empty list whose files are created in the default temporary directory.
+   * @throws IOException if the files cannot be created
+   */
+  MappedStringList() throws IOException
+  {
+    this(Paths.get(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * Creates an empty list whose files are created in the given directory.
+   * @param directory the directory of the data and index files
+   * @throws IOException if the files cannot be created
+   */
+  MappedStringList(final Path directory) throws IOException
+  {
+    this.data = open(Files.createTempFile(directory, "strings", ".data"));
+    try {
+      this.index = open(Files.createTempFile(directory, "strings", ".index"));
+    } catch (IOException ex) {
+      this.data.close();
+      throw ex;
+    }
+  }
+
+  private static FileChannel open(final Path file) throws IOException
+  {
+    return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+      StandardOpenOption.DELETE_ON_CLOSE);
+  }
+
+  @Override
+  public String get(final int index)
+  {
+    Objects.checkIndex(index, this.size);
+    final int length = this.byteLengthAt(index);
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    this.bytesAt(index).get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Encodes the value straight into the mapped data file and records its position in the index.
+   * @throws IllegalArgumentException if the encoded value is larger than {@value #SEGMENT_SIZE} bytes
+   * @throws IllegalStateException if the list is closed or its files cannot be extended
+   */
+  @Override
+  public boolean add(final String value)
+  {
+    this.ensureOpen();
+    final long position;
+    final int length;
+    if (value == null) {
+      position = this.dataPosition;
+      length = NULL_LENGTH;
+    } else {
+      position = this.encode(value);
+      length = (int) (this.dataPosition - position);
+    }
+
+    final int entry = this.size & (INDEX_SEGMENT_ENTRIES - 1);
+    final MappedByteBuffer indexSegment = segment(this.indexSegments, this.index, this.size / INDEX_SEGMENT_ENTRIES,
+      (long) INDEX_SEGMENT_ENTRIES * INDEX_ENTRY_SIZE);
+    indexSegment.putLong(entry * INDEX_ENTRY_SIZE, position).putInt(entry * INDEX_ENTRY_SIZE + Long.BYTES, length);
+    this.size++;
+    this.modCount++;
+    return true;
+  }
+
+  /**
+   * Writes the UTF-8 bytes of the value at the end of the data file. An element never spans two segments:
+   * when it does not fit in the rest of the current segment, it is written again at the start of the next.
+   * @return the position of the first byte of the value in the data file
+   */
+  private long encode(final String value)
+  {
+    final CharBuffer chars = CharBuffer.wrap(value);
+    boolean freshSegment = (this.dataPosition & (SEGMENT_SIZE - 1)) == 0;
+    while (true) {
+      final MappedByteBuffer segment = segment(this.dataSegments, this.data,
+        (int) (this.dataPosition >>> SEGMENT_BITS), SEGMENT_SIZE);
+      final int start = (int) (this.dataPosition & (SEGMENT_SIZE - 1));
+      segment.limit(SEGMENT_SIZE).position(start);
+      this.encoder.reset();
+      final CoderResult result = this.encoder.encode(chars, segment, true);
+      if (!result.isOverflow() && !this.encoder.flush(segment).isOverflow()) {
+        final long position = this.dataPosition;
+        this.dataPosition += segment.position() - start;
+        return position;
+      }
+      if (freshSegment) {
+        throw new IllegalArgumentException("A value of " + value.length() + " characters does not fit in a "
+          + "segment of " + SEGMENT_SIZE + " bytes");
+      }
+      chars.rewind();
+      this.dataPosition = (this.dataPosition | (SEGMENT_SIZE - 1)) + 1;
+      freshSegment = true;
+    }
+  }
+
+  @Override
+  public void clear()
+  {
+    this.dataPosition = 0;
+    this.size = 0;
+    this.modCount++;
+  }
+
+  /**
+   * Closes the files of this list, which deletes them. The list cannot be used afterwards.
+   * @throws IOException if a file cannot be closed
+   */
+  @Override
+  public void close() throws IOException
+  {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.dataSegments.clear();
+    this.indexSegments.clear();
+    try {
+      this.data.close();
+    } finally {
+      this.index.close();
+    }
+  }
+
+  /**
+   * @param index the position of an element of this list
+   * @return the number of UTF-8 bytes of the element at the given position, or -1 if it is null
+   */
+  int byteLengthAt(final int index)
+  {
+    this.ensureOpen();
+    final int entry = index & (INDEX_SEGMENT_ENTRIES - 1);
+    return this.indexSegments.get(index / INDEX_SEGMENT_ENTRIES).getInt(entry * INDEX_ENTRY_SIZE + Long.BYTES);
+  }
+
+  /**
+   * @param index the position of an element of this list that is not null
+   * @return a read-only view of the UTF-8 bytes of the element at the given position, positioned at its
+   *   first byte and limited after its last
+   */
+  ByteBuffer bytesAt(final int index)
+  {
+    this.ensureOpen();
+    final int entry = index & (INDEX_SEGMENT_ENTRIES - 1);
+    final MappedByteBuffer indexSegment = this.indexSegments.get(index / INDEX_SEGMENT_ENTRIES);
+    final long position = indexSegment.getLong(entry * INDEX_ENTRY_SIZE);
+    final int length = indexSegment.getInt(entry * INDEX_ENTRY_SIZE + Long.BYTES);
+    final int start = (int) (position & (SEGMENT_SIZE - 1));
+    final ByteBuffer bytes = this.dataSegments.get((int) (position >>> SEGMENT_BITS)).asReadOnlyBuffer();
+    bytes.limit(start + length).position(start);
+    return bytes;
+  }
+
+  private void ensureOpen()
+  {
+    if (this.closed) {
+      throw new IllegalStateException("The list is closed");
+    }
+  }
+
+  /**
+   * Returns the requested segment of the given file, mapping it first if this is the first time it is used.
+   * Mapping a segment beyond the end of the file extends the file.
+   */
+  private static MappedByteBuffer segment(final List<MappedByteBuffer> segments, final FileChannel file,
+    final int segmentIndex, final long segmentSize)
+  {
+    if (segmentIndex < segments.size()) {
+      return segments.get(segmentIndex);
+    }
+    try {
+      final MappedByteBuffer segment = file.map(FileChannel.MapMode.READ_WRITE, segmentIndex * segmentSize,
+        segmentSize);
+      segments.add(segment);
+      return segment;
+    } catch (IOException ex) {
+      throw new IllegalStateException("Cannot map segment " + segmentIndex + " of the list", ex);
+    }
+  }
+}
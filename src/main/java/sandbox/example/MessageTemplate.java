@@ -0,0 +1,146 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message pattern in the {@link String#format(String, Object...)} syntax that is parsed once into its
+ * literal text and argument placeholders, so rendering a message only appends those parts in order. Only
+ * the {@code %s} and {@code %%} conversions are supported, which covers every diagnostic message of the
+ * demonstration; {@code %s} renders an argument the way {@link String#valueOf(Object)} does.
+ */
+final class MessageTemplate {
+
+  private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
+  /** The literal text before each argument, followed by the literal text after the last argument. */
+  private final String[] literals;
+
+  private final int argumentCount;
+
+  private final int literalLength;
+
+  private MessageTemplate(final String[] literals)
+  {
+    this.literals = literals;
+    this.argumentCount = literals.length - 1;
+
+    int length = 0;
+    for (final String literal : literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * Parses the given pattern.
+   * @param pattern the message pattern, using only the {@code %s} and {@code %%} conversions
+   * @return the parsed template
+   * @throws IllegalArgumentException if the pattern uses any other conversion
+   */
+  static MessageTemplate compile(final String pattern)
+  {
+    final List<String> literals = new ArrayList<>();
+    final StringBuilder literal = new StringBuilder();
+    for (int i = 0; i < pattern.length(); i++) {
+      final char current = pattern.charAt(i);
+      if (current != '%') {
+        literal.append(current);
+        continue;
+      }
+      final char conversion = i + 1 < pattern.length() ? pattern.charAt(++i) : '\0';
+      if (conversion == '%') {
+        literal.append('%');
+      } else if (conversion == 's') {
+        literals.add(literal.toString());
+        literal.setLength(0);
+      } else {
+        throw new IllegalArgumentException("Unsupported conversion at index " + (i - 1) + " of: " + pattern);
+      }
+    }
+    literals.add(literal.toString());
+    return new MessageTemplate(literals.toArray(new String[0]));
+  }
+
+  /**
+   * @return the number of arguments that the template expects
+   */
+  int argumentCount()
+  {
+    return this.argumentCount;
+  }
+
+  /**
+   * Renders the message into the given builder.
+   * @param out the builder to append the message to
+   * @param arguments the arguments of the message, one for each placeholder
+   * @return the given builder
+   * @throws IllegalArgumentException if the number of arguments does not match the template
+   */
+  StringBuilder appendTo(final StringBuilder out, final Object... arguments)
+  {
+    this.checkArguments(arguments);
+    out.ensureCapacity(out.length() + this.literalLength + 16 * this.argumentCount);
+    for (int i = 0; i < this.argumentCount; i++) {
+      out.append(this.literals[i]).append(arguments[i]);
+    }
+    return out.append(this.literals[this.argumentCount]);
+  }
+
+  /**
+   * Writes the message to the given destination without building a String.
+   * @param out the destination of the message
+   * @param arguments the arguments of the message, one for each placeholder
+   * @throws IOException if the destination cannot be written to
+   * @throws IllegalArgumentException if the number of arguments does not match the template
+   */
+  void writeTo(final Appendable out, final Object... arguments) throws IOException
+  {
+    this.checkArguments(arguments);
+    for (int i = 0; i < this.argumentCount; i++) {
+      out.append(this.literals[i]).append(String.valueOf(arguments[i]));
+    }
+    out.append(this.literals[this.argumentCount]);
+  }
+
+  /**
+   * Renders the message through a builder that is reused by every call on the same thread. When an
+   * argument formats another message while its String representation is appended, that nested call finds
+   * the builder in use and renders through a builder of its own instead.
+   * @param arguments the arguments of the message, one for each placeholder
+   * @return the message
+   * @throws IllegalArgumentException if the number of arguments does not match the template
+   */
+  String format(final Object... arguments)
+  {
+    final Buffer buffer = BUFFER.get();
+    if (buffer.inUse) {
+      return this.appendTo(new StringBuilder(this.literalLength + 16 * this.argumentCount), arguments).toString();
+    }
+    buffer.inUse = true;
+    try {
+      buffer.text.setLength(0);
+      return this.appendTo(buffer.text, arguments).toString();
+    } finally {
+      buffer.inUse = false;
+    }
+  }
+
+  private void checkArguments(final Object[] arguments)
+  {
+    if (arguments.length != this.argumentCount) {
+      throw new IllegalArgumentException("Expected " + this.argumentCount + " arguments but got " + arguments.length);
+    }
+  }
+
+  /**
+   * The builder of one thread, and whether a call to {@link #format(Object...)} on that thread is using it.
+   */
+  private static final class Buffer {
+
+    final StringBuilder text = new StringBuilder(256);
+
+    boolean inUse;
+  }
+}
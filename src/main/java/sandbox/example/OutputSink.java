@@ -0,0 +1,20 @@
+package sandbox.example;
+
+/**
+ * A destination for the lines of text that the demonstration produces.
+ */
+@FunctionalInterface
+interface OutputSink {
+
+  /** Prints every line directly to {@link System#out}, the way the demonstration always has. */
+  OutputSink STANDARD_OUT = System.out::println;
+
+  /** Drops every line, for runs that only care about the work and not about its output. */
+  OutputSink DISCARD = line -> { };
+
+  /**
+   * Sends a line of text to this sink.
+   * @param line the text, without a line terminator
+   */
+  void println(String line);
+}
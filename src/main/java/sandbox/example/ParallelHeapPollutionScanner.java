@@ -0,0 +1,329 @@
+package sandbox.example;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import sandbox.example.HeapPollutionScanner.Violation;
+
+/**
+ * <p>Finds the same heap pollution as {@link HeapPollutionScanner}, but spreads the walk over the workers
+ * of a fork/join pool. Large random access lists are split into ranges that are checked in parallel, and
+ * whenever the pool runs short of queued work, the subgraph of the next node becomes a task of its own, so
+ * idle workers steal independent subgraphs and list ranges from busy ones.</p>
+ * <p>The tasks are counted completers that fork their children instead of joining them, which keeps the
+ * stack depth of the workers independent of the depth of the graph. Objects are claimed through a
+ * striped identity set, so each one is scanned exactly once. Violations are reported in no particular
+ * order.</p>
+ */
+final class ParallelHeapPollutionScanner {
+
+  /** The number of list elements below which a range is checked by a single task. */
+  private static final int SPLIT_THRESHOLD = 1 << 11;
+
+  /** The number of independently locked parts of the set of visited objects. */
+  private static final int VISITED_STRIPES = 64;
+
+  private ParallelHeapPollutionScanner()
+  {
+  }
+
+  /**
+   * Scans the object graph reachable from the given root on the common fork/join pool.
+   * @param root the object to start scanning at
+   * @return every violation found, in no particular order
+   */
+  static Queue<Violation> scan(final Object root)
+  {
+    return scan(root, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Scans the object graph reachable from the given root on the given pool.
+   * @param root the object to start scanning at
+   * @param pool the pool that runs the scan
+   * @return every violation found, in no particular order
+   */
+  static Queue<Violation> scan(final Object root, final ForkJoinPool pool)
+  {
+    final Queue<Violation> violations = new ConcurrentLinkedQueue<>();
+    scan(root, pool, violations::add);
+    return violations;
+  }
+
+  /**
+   * Scans the object graph reachable from the given root on the given pool, handing every violation to the
+   * given sink as soon as it is found.
+   * @param root the object to start scanning at
+   * @param pool the pool that runs the scan
+   * @param sink the receiver of the violations found, which is called concurrently by the workers
+   */
+  static void scan(final Object root, final ForkJoinPool pool, final Consumer<Violation> sink)
+  {
+    pool.invoke(new VisitTask(null, new Scan(sink), root, null, null, TypeDescriptor.ANY));
+  }
+
+  /**
+   * The state shared by all tasks of one scan.
+   */
+  private static final class Scan {
+
+    /*
+     * The identity set of visited objects is striped by identity hash code, so workers rarely contend for
+     * the same stripe, and claiming an object allocates no key object.
+     */
+    private final VisitedStripe[] visited = new VisitedStripe[VISITED_STRIPES];
+
+    private final Consumer<Violation> sink;
+
+    Scan(final Consumer<Violation> sink)
+    {
+      for (int i = 0; i < VISITED_STRIPES; i++) {
+        this.visited[i] = new VisitedStripe();
+      }
+      this.sink = sink;
+    }
+
+    boolean claim(final Object value)
+    {
+      final int hash = System.identityHashCode(value);
+      final VisitedStripe stripe = this.visited[(hash ^ (hash >>> 16)) & (VISITED_STRIPES - 1)];
+      synchronized (stripe) {
+        return stripe.objects.put(value, Boolean.TRUE) == null;
+      }
+    }
+
+    void check(final Object element, final TypeDescriptor expectedType, final Object owner, final Field field,
+      final int index)
+    {
+      if (!expectedType.accepts(element)) {
+        DemonstrationMetrics.get().recordTypeViolation();
+        this.sink.accept(new Violation(owner, field, index, element.getClass(), expectedType.erasure));
+      }
+    }
+  }
+
+  /**
+   * One part of the set of visited objects, which is also the lock that guards it.
+   */
+  private static final class VisitedStripe {
+
+    final Map<Object, Boolean> objects = new IdentityHashMap<>();
+  }
+
+  /**
+   * A node of the graph waiting to be scanned, together with the field it was reached through and its
+   * declared type.
+   */
+  private static final class Pending {
+
+    private final Object value;
+
+    private final Object owner;
+
+    private final Field field;
+
+    private final TypeDescriptor type;
+
+    Pending(final Object value, final Object owner, final Field field, final TypeDescriptor type)
+    {
+      this.value = value;
+      this.owner = owner;
+      this.field = field;
+      this.type = type;
+    }
+  }
+
+  /**
+   * Walks nodes of the graph with a local stack, like the sequential scanner does, and hands nodes over to
+   * new tasks only while the pool has too few queued tasks to keep its workers busy. That way a scan pays
+   * for a task per node only where the nodes are actually spread over workers.
+   */
+  private abstract static class ScanTask extends CountedCompleter<Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The number of queued tasks below which nodes are forked instead of walked locally. */
+    private static final int SURPLUS_TARGET = 2;
+
+    final Scan scan;
+
+    private final Deque<Pending> pending = new ArrayDeque<>();
+
+    ScanTask(final CountedCompleter<?> parent, final Scan scan)
+    {
+      super(parent);
+      this.scan = scan;
+    }
+
+    /**
+     * Scans the given child now or later, either locally or in a forked task.
+     */
+    final void enqueue(final Object child, final Object childOwner, final Field childField,
+      final TypeDescriptor childType)
+    {
+      if (child == null || !HeapPollutionScanner.isTraversable(child.getClass())) {
+        return;
+      }
+      if (getSurplusQueuedTaskCount() < SURPLUS_TARGET) {
+        this.addToPendingCount(1);
+        new VisitTask(this, this.scan, child, childOwner, childField, childType).fork();
+      } else {
+        this.pending.push(new Pending(child, childOwner, childField, childType));
+      }
+    }
+
+    /**
+     * Scans every node that was queued locally, including the ones queued while doing so.
+     */
+    final void drain()
+    {
+      while (!this.pending.isEmpty()) {
+        final Pending next = this.pending.pop();
+        this.visit(next.value, next.owner, next.field, next.type);
+      }
+    }
+
+    /**
+     * Checks the elements of the given node against its declared type, and enqueues its children with their
+     * own declared types, so that nested collections and maps are checked as well.
+     */
+    final void visit(final Object current, final Object owner, final Field field, final TypeDescriptor type)
+    {
+      if (!this.scan.claim(current)) {
+        return;
+      }
+
+      final TypeDescriptor elementType = type.elements;
+      if (current instanceof List && current instanceof RandomAccess
+        && ((List<?>) current).size() > SPLIT_THRESHOLD) {
+        final List<?> list = (List<?>) current;
+        this.addToPendingCount(1);
+        new RangeTask(this, this.scan, list, 0, list.size(), elementType, owner, field).fork();
+      } else if (current instanceof Collection) {
+        int index = 0;
+        for (final Object element : (Collection<?>) current) {
+          this.scan.check(element, elementType, owner, field, index++);
+          this.enqueue(element, owner, field, elementType);
+        }
+      } else if (current instanceof Map) {
+        int index = 0;
+        for (final Map.Entry<?, ?> entry : ((Map<?, ?>) current).entrySet()) {
+          this.scan.check(entry.getKey(), type.elements, owner, field, index);
+          this.scan.check(entry.getValue(), type.values, owner, field, index);
+          index++;
+          this.enqueue(entry.getKey(), owner, field, type.elements);
+          this.enqueue(entry.getValue(), owner, field, type.values);
+        }
+      } else if (current instanceof Object[]) {
+        int index = 0;
+        for (final Object element : (Object[]) current) {
+          this.scan.check(element, elementType, owner, field, index++);
+          this.enqueue(element, owner, field, elementType);
+        }
+      } else if (!current.getClass().isArray()) {
+        for (final TypeDescriptor.FieldDescriptor child : TypeDescriptor.fieldsOf(current.getClass())) {
+          this.enqueue(child.get(current), current, child.field, child.type);
+        }
+      }
+    }
+  }
+
+  /**
+   * Scans the graph reachable from one node.
+   */
+  private static final class VisitTask extends ScanTask {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+
+    private final Object owner;
+
+    private final Field field;
+
+    private final TypeDescriptor type;
+
+    VisitTask(final CountedCompleter<?> parent, final Scan scan, final Object value, final Object owner,
+      final Field field, final TypeDescriptor type)
+    {
+      super(parent, scan);
+      this.value = value;
+      this.owner = owner;
+      this.field = field;
+      this.type = type;
+    }
+
+    @Override
+    public void compute()
+    {
+      if (this.value != null && HeapPollutionScanner.isTraversable(this.value.getClass())) {
+        this.visit(this.value, this.owner, this.field, this.type);
+        this.drain();
+      }
+      this.tryComplete();
+    }
+  }
+
+  /**
+   * Checks a range of a random access list, splitting it in halves while it is larger than the threshold,
+   * and scans the graph reachable from its elements.
+   */
+  private static final class RangeTask extends ScanTask {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> list;
+
+    private final int from;
+
+    private final int to;
+
+    private final TypeDescriptor elementType;
+
+    private final Object owner;
+
+    private final Field field;
+
+    RangeTask(final CountedCompleter<?> parent, final Scan scan, final List<?> list, final int from, final int to,
+      final TypeDescriptor elementType, final Object owner, final Field field)
+    {
+      super(parent, scan);
+      this.list = list;
+      this.from = from;
+      this.to = to;
+      this.elementType = elementType;
+      this.owner = owner;
+      this.field = field;
+    }
+
+    @Override
+    public void compute()
+    {
+      int high = this.to;
+      while (high - this.from > SPLIT_THRESHOLD) {
+        final int middle = (this.from + high) >>> 1;
+        this.addToPendingCount(1);
+        new RangeTask(this, this.scan, this.list, middle, high, this.elementType, this.owner, this.field).fork();
+        high = middle;
+      }
+
+      for (int index = this.from; index < high; index++) {
+        final Object element = this.list.get(index);
+        this.scan.check(element, this.elementType, this.owner, this.field, index);
+        this.enqueue(element, this.owner, this.field, this.elementType);
+      }
+      this.drain();
+      this.tryComplete();
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package sandbox.example;
+
+/**
+ * Decides what a rendering does with an element of the strings collection that is not a String type
+ * value, like the Integer type value that {@link TypeErasureDemonstration#neverDoThis()} inserts.
+ */
+enum PollutionPolicy {
+
+  /** Leaves the element out of the rendered text. */
+  SKIP,
+
+  /** Renders the element through {@link String#valueOf(Object)} as if it were a String type value. */
+  SUBSTITUTE,
+
+  /** Leaves the element out of the rendered text and reports it with its position in the collection. */
+  COLLECT,
+
+  /** Fails the rendering with a ClassCastException, like the enhanced for loop over the collection does. */
+  FAIL
+}
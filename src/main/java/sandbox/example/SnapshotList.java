@@ -0,0 +1,266 @@
+package sandbox.example;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A list whose every version is an immutable {@link Snapshot} that can be taken in constant time, so that
+ * a rendering iterates over one consistent version of the strings collection while other threads keep
+ * adding to it, without blocking them and without copying the list.</p>
+ * <p>A snapshot is a persistent vector: a tree of arrays of {@value #BRANCHING} elements, plus a tail array
+ * with the last elements. Adding an element copies only the tail, and when the tail is full, the path from
+ * the root to the place where the tail goes into the tree, so a new version shares all other arrays with
+ * the version before it. The list itself only holds the current version, which every change replaces with
+ * a compare-and-set, trying again from the new current version if another thread was faster.</p>
+ * <p>The list supports adding to the end, replacing and clearing. Its iterator iterates over the version
+ * that is current when it is created and never throws a ConcurrentModificationException. The element type
+ * is a type variable rather than String, so that a value inserted through the raw List type is stored
+ * like an ArrayList would store it.</p>
+ * @param <E> the declared type of the elements
+ */
+final class SnapshotList<E> extends AbstractList<E> implements RandomAccess {
+
+  private static final int BITS = 5;
+
+  static final int BRANCHING = 1 << BITS;
+
+  private static final int MASK = BRANCHING - 1;
+
+  private final AtomicReference<Snapshot<E>> current = new AtomicReference<>(Snapshot.empty());
+
+  /**
+   * @return the current version of this list, which never changes
+   */
+  Snapshot<E> snapshot()
+  {
+    return this.current.get();
+  }
+
+  @Override
+  public E get(final int index)
+  {
+    return this.current.get().get(index);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.current.get().size();
+  }
+
+  @Override
+  public boolean add(final E value)
+  {
+    Snapshot<E> snapshot;
+    do {
+      snapshot = this.current.get();
+    } while (!this.current.compareAndSet(snapshot, snapshot.append(value)));
+    return true;
+  }
+
+  @Override
+  public E set(final int index, final E value)
+  {
+    Snapshot<E> snapshot;
+    do {
+      snapshot = this.current.get();
+    } while (!this.current.compareAndSet(snapshot, snapshot.with(index, value)));
+    return snapshot.get(index);
+  }
+
+  @Override
+  public void clear()
+  {
+    this.current.set(Snapshot.empty());
+  }
+
+  /**
+   * Iterates over the version of this list that is current when this method is called.
+   */
+  @Override
+  public Iterator<E> iterator()
+  {
+    return this.current.get().iterator();
+  }
+
+  /**
+   * One immutable version of a {@link SnapshotList}.
+   * @param <E> the declared type of the elements
+   */
+  static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final Snapshot<?> EMPTY = new Snapshot<>(0, BITS, new Object[BRANCHING], new Object[0]);
+
+    private final int size;
+
+    /** The number of index bits below the level of the root. */
+    private final int shift;
+
+    private final Object[] root;
+
+    private final Object[] tail;
+
+    private Snapshot(final int size, final int shift, final Object[] root, final Object[] tail)
+    {
+      this.size = size;
+      this.shift = shift;
+      this.root = root;
+      this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> Snapshot<E> empty()
+    {
+      return (Snapshot<E>) EMPTY;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index)
+    {
+      Objects.checkIndex(index, this.size);
+      return (E) this.leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size()
+    {
+      return this.size;
+    }
+
+    /**
+     * Reads every leaf array once, instead of walking down the tree for every element.
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+      return new Iterator<>() {
+
+        private int index;
+
+        private Object[] leaf;
+
+        @Override
+        public boolean hasNext()
+        {
+          return this.index < Snapshot.this.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next()
+        {
+          if (this.index >= Snapshot.this.size) {
+            throw new NoSuchElementException();
+          }
+          if ((this.index & MASK) == 0) {
+            this.leaf = Snapshot.this.leafFor(this.index);
+          }
+          return (E) this.leaf[this.index++ & MASK];
+        }
+      };
+    }
+
+    /**
+     * @return the index of the first element in the tail
+     */
+    private int tailOffset()
+    {
+      return this.size < BRANCHING ? 0 : ((this.size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(final int index)
+    {
+      if (index >= this.tailOffset()) {
+        return this.tail;
+      }
+      Object[] node = this.root;
+      for (int level = this.shift; level > 0; level -= BITS) {
+        node = (Object[]) node[(index >>> level) & MASK];
+      }
+      return node;
+    }
+
+    /**
+     * @return a version with the given value added to the end of this one
+     */
+    Snapshot<E> append(final E value)
+    {
+      if (this.size - this.tailOffset() < BRANCHING) {
+        final Object[] tail = Arrays.copyOf(this.tail, this.tail.length + 1);
+        tail[this.tail.length] = value;
+        return new Snapshot<>(this.size + 1, this.shift, this.root, tail);
+      }
+
+      final Object[] root;
+      int shift = this.shift;
+      if ((this.size >>> BITS) > (1 << this.shift)) {
+        // The tree is full, so it gets a new root one level higher.
+        root = new Object[BRANCHING];
+        root[0] = this.root;
+        root[1] = newPath(this.shift, this.tail);
+        shift += BITS;
+      } else {
+        root = this.pushTail(this.shift, this.root);
+      }
+      return new Snapshot<>(this.size + 1, shift, root, new Object[] {value});
+    }
+
+    /**
+     * Copies the path from the given node down to the place of the full tail, and puts the tail there.
+     */
+    private Object[] pushTail(final int level, final Object[] parent)
+    {
+      final Object[] node = parent.clone();
+      final int child = ((this.size - 1) >>> level) & MASK;
+      if (level == BITS) {
+        node[child] = this.tail;
+      } else {
+        final Object[] existing = (Object[]) parent[child];
+        node[child] = existing == null ? newPath(level - BITS, this.tail) : this.pushTail(level - BITS, existing);
+      }
+      return node;
+    }
+
+    private static Object[] newPath(final int level, final Object[] leaf)
+    {
+      if (level == 0) {
+        return leaf;
+      }
+      final Object[] node = new Object[BRANCHING];
+      node[0] = newPath(level - BITS, leaf);
+      return node;
+    }
+
+    /**
+     * @return a version with the element at the given position replaced by the given value
+     */
+    Snapshot<E> with(final int index, final E value)
+    {
+      Objects.checkIndex(index, this.size);
+      if (index >= this.tailOffset()) {
+        final Object[] tail = this.tail.clone();
+        tail[index & MASK] = value;
+        return new Snapshot<>(this.size, this.shift, this.root, tail);
+      }
+      return new Snapshot<>(this.size, this.shift, with(this.shift, this.root, index, value), this.tail);
+    }
+
+    private static Object[] with(final int level, final Object[] parent, final int index, final Object value)
+    {
+      final Object[] node = parent.clone();
+      if (level == 0) {
+        node[index & MASK] = value;
+      } else {
+        final int child = (index >>> level) & MASK;
+        node[child] = with(level - BITS, (Object[]) parent[child], index, value);
+      }
+      return node;
+    }
+  }
+}
@@ -0,0 +1,519 @@
+package sandbox.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Renders the strings collection of a {@link TypeErasureDemonstration} in the same format as its
+ * {@code getStringsValue} and {@code getReverseStringsValue} methods, but in ways that avoid the
+ * intermediate copies those methods make.
+ */
+final class StringsRenderer {
+
+  static final String STRINGS_VALUE_PREFIX = "The Strings collection value is: [";
+
+  static final String REVERSE_STRINGS_VALUE_PREFIX = "The Strings collection with values in reverse order is: ['";
+
+  /** The collection size below which rendering in parallel is not worth splitting the work. */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /** The number of elements that a single fork/join task renders. */
+  private static final int PARALLEL_CHUNK_SIZE = 1 << 13;
+
+  /** The size of the direct buffer that stages the bytes of a gathering rendering. */
+  private static final int STAGING_SIZE = 1 << 16;
+
+  /**
+   * The staging buffer of each thread, allocated on its first gathering rendering. It is null while a
+   * rendering uses it, so that a channel which renders again on the same thread gets a buffer of its own.
+   */
+  private static final ThreadLocal<ByteBuffer> STAGING = ThreadLocal.withInitial(
+    () -> ByteBuffer.allocateDirect(STAGING_SIZE));
+
+  /** The length in bytes above which an element is written straight from its mapped file. */
+  static final int GATHER_THRESHOLD = 1 << 12;
+
+  private static final byte[] STRINGS_VALUE_PREFIX_BYTES = STRINGS_VALUE_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+  private static final byte[] QUOTE_BYTES = {'\''};
+
+  private static final byte[] ELEMENT_SEPARATOR_BYTES = {'\'', ',', ' ', '\''};
+
+  private static final byte[] NULL_BYTES = {'n', 'u', 'l', 'l'};
+
+  private static final byte[] QUOTE_AND_END_BYTES = {'\'', ']'};
+
+  private static final byte[] END_BYTES = {']'};
+
+  private StringsRenderer()
+  {
+  }
+
+  /**
+   * Computes the capacity that a StringBuilder needs to render the given values with the given prefix in
+   * the format of {@code getStringsValue} and {@code getReverseStringsValue}, so the builder is allocated
+   * once and never grows. The capacity covers every element followed by its quotes and the ", " separator,
+   * which is the largest size the builder reaches before the trailing separator is removed.
+   * @param prefix the text that precedes the list of values
+   * @param values the values to render
+   * @return the capacity of a StringBuilder that fits the rendered text
+   */
+  static int capacityFor(final String prefix, final List<?> values)
+  {
+    long capacity = prefix.length();
+    if (values instanceof MappedStringList) {
+      // A UTF-8 byte stands for at most one char, so the byte lengths bound the text without decoding it.
+      final MappedStringList mapped = (MappedStringList) values;
+      for (int i = 0; i < mapped.size(); i++) {
+        final int byteLength = mapped.byteLengthAt(i);
+        capacity += (byteLength < 0 ? "null".length() : byteLength) + 4;
+      }
+    } else if (values instanceof Latin1StringPool) {
+      final Latin1StringPool.Cursor cursor = ((Latin1StringPool) values).cursor();
+      while (cursor.next()) {
+        capacity += cursor.length() + 4;
+      }
+    } else if (values instanceof HybridStringList) {
+      final HybridStringList<?> hybrid = (HybridStringList<?>) values;
+      for (int i = 0; i < hybrid.size(); i++) {
+        capacity += (hybrid.isIntAt(i) ? lengthOf(hybrid.getInt(i)) : lengthOf(hybrid.getReference(i))) + 4;
+      }
+    } else {
+      for (final Object value : values) {
+        capacity += lengthOf(value) + 4;
+      }
+    }
+    return (int) Math.min(capacity, Integer.MAX_VALUE - 8);
+  }
+
+  private static int lengthOf(final Object value)
+  {
+    if (value instanceof String) {
+      return ((String) value).length();
+    }
+    return value instanceof Integer ? lengthOf(((Integer) value).intValue()) : String.valueOf(value).length();
+  }
+
+  /**
+   * @return the number of characters of the decimal representation of the given value, computed without
+   *   creating that representation
+   */
+  private static int lengthOf(final int value)
+  {
+    int length = value < 0 ? 2 : 1;
+    for (long bound = 10; bound <= Math.abs((long) value); bound *= 10) {
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Appends the characters of the given value in reverse order, producing the same text as
+   * {@link StringBuilder#reverse()} without the temporary builder and String that reversing through it
+   * takes. Like {@code reverse()}, a valid surrogate pair keeps its order so the code point survives, and
+   * an unpaired surrogate is reversed like any other character.
+   * @param out the builder to append to
+   * @param value the value to append in reverse order
+   * @return the given builder
+   */
+  static StringBuilder appendReversed(final StringBuilder out, final CharSequence value)
+  {
+    final int length = value.length();
+    int position = out.length();
+    // Grows the builder once and then fills it in place, which is cheaper than appending char by char.
+    out.setLength(position + length);
+
+    int index = length - 1;
+    while (index >= 0) {
+      final char current = value.charAt(index);
+      if (Character.isLowSurrogate(current) && index > 0 && Character.isHighSurrogate(value.charAt(index - 1))) {
+        out.setCharAt(position++, value.charAt(index - 1));
+        out.setCharAt(position++, current);
+        index -= 2;
+      } else {
+        out.setCharAt(position++, current);
+        index--;
+      }
+    }
+    return out;
+  }
+
+  /**
+   * Renders the reversed values in the format of {@code getReverseStringsValue} in a single pass, deciding
+   * what to do with every element that is not a String type value according to the given policy. The type
+   * of every element is checked with a plain class comparison before it is used, so no exception is thrown
+   * unless the policy is {@link PollutionPolicy#FAIL}. A null element is treated as the text "null", like
+   * {@link String#valueOf(Object)} treats it, and is therefore reversed like any other value, as 'llun'.
+   * @param values the values to render
+   * @param policy what to do with elements that are not String type values
+   * @param pollutedElements receives every element left out by {@link PollutionPolicy#COLLECT}, along with
+   *   its position in the collection
+   * @return the list of all reversed values
+   * @throws ClassCastException if an element is not a String type value and the policy is
+   *   {@link PollutionPolicy#FAIL}
+   */
+  static String renderReverse(final List<?> values, final PollutionPolicy policy,
+    final ObjIntConsumer<Object> pollutedElements)
+  {
+    if (values instanceof HybridStringList) {
+      return renderReverse((HybridStringList<?>) values, policy, pollutedElements);
+    }
+    if (values instanceof Latin1StringPool) {
+      return renderReverse((Latin1StringPool) values);
+    }
+
+    final StringBuilder stringBuilder = new StringBuilder(capacityFor(REVERSE_STRINGS_VALUE_PREFIX, values))
+      .append(REVERSE_STRINGS_VALUE_PREFIX);
+
+    boolean first = true;
+    int index = 0;
+    for (final Object value : values) {
+      final CharSequence text;
+      if (value == null || value.getClass() == String.class) {
+        text = (String) value;
+      } else if (policy == PollutionPolicy.SUBSTITUTE) {
+        DemonstrationMetrics.get().recordTypeViolation();
+        text = String.valueOf(value);
+      } else if (policy == PollutionPolicy.FAIL) {
+        DemonstrationMetrics.get().recordTypeViolation();
+        DemonstrationMetrics.get().recordClassCastException();
+        throw ErasureDiagnostics.isEnabled()
+          ? ErasureDiagnostics.classCast(value)
+          : new ClassCastException(value.getClass() + " cannot be cast to " + String.class);
+      } else {
+        DemonstrationMetrics.get().recordTypeViolation();
+        if (policy == PollutionPolicy.COLLECT) {
+          pollutedElements.accept(value, index);
+        }
+        index++;
+        continue;
+      }
+
+      if (first) {
+        first = false;
+      } else {
+        stringBuilder.append(", ");
+      }
+      appendReversed(stringBuilder.append('\''), text == null ? "null" : text).append('\'');
+      index++;
+    }
+
+    return stringBuilder.append(']').toString();
+  }
+
+  /**
+   * The same rendering as {@link #renderReverse(List, PollutionPolicy, ObjIntConsumer)} for a hybrid list,
+   * whose ints are substituted without being boxed or turned into a String first. An int is boxed only
+   * when it is handed to the consumer of polluted elements or to the ClassCastException.
+   */
+  private static String renderReverse(final HybridStringList<?> values, final PollutionPolicy policy,
+    final ObjIntConsumer<Object> pollutedElements)
+  {
+    final StringBuilder stringBuilder = new StringBuilder(capacityFor(REVERSE_STRINGS_VALUE_PREFIX, values))
+      .append(REVERSE_STRINGS_VALUE_PREFIX);
+
+    boolean first = true;
+    for (int index = 0; index < values.size(); index++) {
+      final boolean isInt = values.isIntAt(index);
+      final Object value = isInt ? null : values.getReference(index);
+      if (isInt || value != null && value.getClass() != String.class) {
+        DemonstrationMetrics.get().recordTypeViolation();
+        if (policy != PollutionPolicy.SUBSTITUTE) {
+          final Object polluted = isInt ? Integer.valueOf(values.getInt(index)) : value;
+          if (policy == PollutionPolicy.FAIL) {
+            DemonstrationMetrics.get().recordClassCastException();
+            throw ErasureDiagnostics.isEnabled()
+              ? ErasureDiagnostics.classCast(polluted)
+              : new ClassCastException(polluted.getClass() + " cannot be cast to " + String.class);
+          }
+          if (policy == PollutionPolicy.COLLECT) {
+            pollutedElements.accept(polluted, index);
+          }
+          continue;
+        }
+      }
+
+      if (first) {
+        first = false;
+      } else {
+        stringBuilder.append(", ");
+      }
+      stringBuilder.append('\'');
+      if (isInt) {
+        appendReversed(stringBuilder, values.getInt(index));
+      } else {
+        appendReversed(stringBuilder, String.valueOf(value));
+      }
+      stringBuilder.append('\'');
+    }
+
+    return stringBuilder.append(']').toString();
+  }
+
+  /**
+   * The same rendering as {@link #renderReverse(List, PollutionPolicy, ObjIntConsumer)} for a pool, which
+   * only holds String type values, so the policy never applies. Every element is reversed straight from the
+   * buffer of a cursor, without creating a String for it.
+   */
+  private static String renderReverse(final Latin1StringPool values)
+  {
+    final StringBuilder stringBuilder = new StringBuilder(capacityFor(REVERSE_STRINGS_VALUE_PREFIX, values))
+      .append(REVERSE_STRINGS_VALUE_PREFIX);
+    final Latin1StringPool.Cursor cursor = values.cursor();
+    boolean first = true;
+    while (cursor.next()) {
+      if (first) {
+        first = false;
+      } else {
+        stringBuilder.append(", ");
+      }
+      appendReversed(stringBuilder.append('\''), cursor).append('\'');
+    }
+    return stringBuilder.append(']').toString();
+  }
+
+  /**
+   * Appends the characters of the decimal representation of the given value in reverse order, exactly like
+   * reversing its String representation would, but without creating that String.
+   */
+  private static void appendReversed(final StringBuilder out, final int value)
+  {
+    final int start = out.length();
+    out.append(value);
+    for (int low = start, high = out.length() - 1; low < high; low++, high--) {
+      final char swapped = out.charAt(low);
+      out.setCharAt(low, out.charAt(high));
+      out.setCharAt(high, swapped);
+    }
+  }
+
+  /**
+   * Renders the same text that {@code getReverseStringsValue} returns, splitting the collection into
+   * chunks that are reversed and rendered into their own buffers on the given pool, and then concatenated
+   * in order. Just like the sequential rendering, an element that is not a String type value causes a
+   * ClassCastException.
+   * @param values the values to render, which must not be empty
+   * @param pool the pool that renders the chunks
+   * @return the list of all reversed values
+   */
+  static String renderReverseInParallel(final List<?> values, final ForkJoinPool pool)
+  {
+    final List<?> elements = values instanceof RandomAccess ? values : Arrays.asList(values.toArray());
+    final int chunkCount = (elements.size() + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+    final StringBuilder[] chunks = new StringBuilder[chunkCount];
+    pool.invoke(new ReverseChunkTask(elements, chunks, 0, chunks.length));
+
+    int length = REVERSE_STRINGS_VALUE_PREFIX.length() + 1;
+    for (final StringBuilder chunk : chunks) {
+      length += chunk.length();
+    }
+
+    final StringBuilder stringBuilder = new StringBuilder(length).append(REVERSE_STRINGS_VALUE_PREFIX);
+    for (final StringBuilder chunk : chunks) {
+      stringBuilder.append(chunk);
+    }
+
+    // Removes the final ", " sequence, just like the sequential rendering does.
+    stringBuilder.setLength(stringBuilder.length() - 2);
+    return stringBuilder.append(']').toString();
+  }
+
+  /**
+   * Writes the same text that {@code getStringsValue} returns directly to the given destination. The
+   * separator is written before every element but the first, so there is no trailing separator to remove
+   * and no String is materialized. An empty collection is written as an empty list.
+   * @param values the values to render
+   * @param out the destination of the rendered text
+   * @throws IOException if the destination cannot be written to
+   */
+  static void writeStringsValue(final List<?> values, final Appendable out) throws IOException
+  {
+    out.append(STRINGS_VALUE_PREFIX);
+
+    if (values instanceof HybridStringList) {
+      writeElements((HybridStringList<?>) values, out);
+    } else {
+      boolean first = true;
+      for (final Object value : values) {
+        if (first) {
+          first = false;
+        } else {
+          out.append(", ");
+        }
+        out.append('\'').append(String.valueOf(value)).append('\'');
+      }
+    }
+
+    out.append(']');
+  }
+
+  /**
+   * Writes the elements of a hybrid list without boxing its ints. A StringBuilder gets the digits of an int
+   * appended directly; any other destination gets them as a String, since Appendable takes no int.
+   */
+  private static void writeElements(final HybridStringList<?> values, final Appendable out) throws IOException
+  {
+    final StringBuilder builder = out instanceof StringBuilder ? (StringBuilder) out : null;
+    for (int index = 0; index < values.size(); index++) {
+      if (index > 0) {
+        out.append(", ");
+      }
+      out.append('\'');
+      if (!values.isIntAt(index)) {
+        out.append(String.valueOf(values.getReference(index)));
+      } else if (builder != null) {
+        builder.append(values.getInt(index));
+      } else {
+        out.append(Integer.toString(values.getInt(index)));
+      }
+      out.append('\'');
+    }
+  }
+
+  /**
+   * Writes the same text that {@code getStringsValue} returns to the given channel, encoded as UTF-8.
+   * The channel is not closed. The elements of a {@link MappedStringList} already are UTF-8 bytes, so when
+   * the channel accepts gathering writes, like a FileChannel or a SocketChannel does, they are written from
+   * the mapped file as they are, without being decoded and encoded again. The channel must then be in
+   * blocking mode.
+   * @param values the values to render
+   * @param channel the destination of the rendered text
+   * @throws IOException if the channel cannot be written to
+   */
+  static void writeStringsValue(final List<?> values, final WritableByteChannel channel) throws IOException
+  {
+    if (values instanceof MappedStringList && channel instanceof GatheringByteChannel) {
+      writeGathered((MappedStringList) values, (GatheringByteChannel) channel);
+      return;
+    }
+    final Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1);
+    writeStringsValue(values, writer);
+    // Only flushes the encoder; closing the writer would close the channel too.
+    writer.flush();
+  }
+
+  /**
+   * Writes the elements of a mapped list together with the text around them. Handing every element to
+   * the channel as its own buffer costs more per element than copying it, so short elements are copied,
+   * still as bytes, into a direct staging buffer along with the quotes and separators, and only elements of
+   * more than {@value #GATHER_THRESHOLD} bytes are written straight from the mapped file, gathered behind
+   * the staged bytes that precede them. The staging buffer is reused by every rendering on the same
+   * thread, since allocating direct memory costs more than a rendering of a small list.
+   */
+  private static void writeGathered(final MappedStringList values, final GatheringByteChannel channel)
+    throws IOException
+  {
+    final ByteBuffer cached = STAGING.get();
+    final ByteBuffer staging = cached == null ? ByteBuffer.allocateDirect(STAGING_SIZE) : cached;
+    STAGING.set(null);
+    try {
+      writeGathered(values, channel, staging.clear());
+    } finally {
+      STAGING.set(staging);
+    }
+  }
+
+  private static void writeGathered(final MappedStringList values, final GatheringByteChannel channel,
+    final ByteBuffer staging) throws IOException
+  {
+    final ByteBuffer[] gathered = new ByteBuffer[2];
+    staging.put(STRINGS_VALUE_PREFIX_BYTES);
+    for (int index = 0; index < values.size(); index++) {
+      final byte[] separator = index == 0 ? QUOTE_BYTES : ELEMENT_SEPARATOR_BYTES;
+      final int length = values.byteLengthAt(index);
+      if (length > GATHER_THRESHOLD) {
+        gathered[0] = ensureRemaining(channel, staging, separator.length).put(separator).flip();
+        gathered[1] = values.bytesAt(index);
+        while (gathered[1].hasRemaining()) {
+          channel.write(gathered);
+        }
+        staging.clear();
+      } else if (length < 0) {
+        ensureRemaining(channel, staging, separator.length + NULL_BYTES.length).put(separator).put(NULL_BYTES);
+      } else {
+        ensureRemaining(channel, staging, separator.length + length).put(separator).put(values.bytesAt(index));
+      }
+    }
+    final byte[] end = values.isEmpty() ? END_BYTES : QUOTE_AND_END_BYTES;
+    writeFully(channel, ensureRemaining(channel, staging, end.length).put(end));
+  }
+
+  /**
+   * Writes out the staged bytes if fewer than the given number of bytes fit behind them.
+   * @return the staging buffer, ready to be filled
+   */
+  private static ByteBuffer ensureRemaining(final GatheringByteChannel channel, final ByteBuffer staging,
+    final int length) throws IOException
+  {
+    if (staging.remaining() < length) {
+      writeFully(channel, staging);
+    }
+    return staging;
+  }
+
+  private static void writeFully(final GatheringByteChannel channel, final ByteBuffer staging) throws IOException
+  {
+    staging.flip();
+    while (staging.hasRemaining()) {
+      channel.write(staging);
+    }
+    staging.clear();
+  }
+
+  /**
+   * Renders a range of chunks, forking until a single chunk is left. Each chunk holds the rendered elements
+   * followed by their separators, exactly like the corresponding part of the sequential output.
+   */
+  private static final class ReverseChunkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> elements;
+
+    private final StringBuilder[] chunks;
+
+    private final int fromChunk;
+
+    private final int toChunk;
+
+    private ReverseChunkTask(final List<?> elements, final StringBuilder[] chunks, final int fromChunk,
+      final int toChunk)
+    {
+      this.elements = elements;
+      this.chunks = chunks;
+      this.fromChunk = fromChunk;
+      this.toChunk = toChunk;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.toChunk - this.fromChunk > 1) {
+        final int middle = (this.fromChunk + this.toChunk) >>> 1;
+        invokeAll(new ReverseChunkTask(this.elements, this.chunks, this.fromChunk, middle),
+          new ReverseChunkTask(this.elements, this.chunks, middle, this.toChunk));
+        return;
+      }
+
+      final int from = this.fromChunk * PARALLEL_CHUNK_SIZE;
+      final int to = Math.min(from + PARALLEL_CHUNK_SIZE, this.elements.size());
+      final List<?> range = this.elements.subList(from, to);
+      final StringBuilder chunk = new StringBuilder(capacityFor("", range));
+      for (final Object value : range) {
+        appendReversed(chunk.append("'"), (String) value).append("', ");
+      }
+      this.chunks[this.fromChunk] = chunk;
+    }
+  }
+}
@@ -0,0 +1,347 @@
+package sandbox.example;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>The resolved form of a declared type such as {@code List<String>} or
+ * {@code Map<String, List<? extends Number>>}: the class that every value of the type must be an instance
+ * of, and the descriptors of its type arguments. Walking {@link Field#getGenericType()} and the
+ * ParameterizedType behind it allocates and is slow, so the generic types of the fields of every class are
+ * resolved only once, into immutable trees of descriptors that {@link #fieldsOf(Class)} keeps per class.
+ * Checking whether an element matches a declared type argument is then a lookup of the field by its index
+ * plus a Class comparison.</p>
+ * <p>A wildcard {@code ? extends T} and a type variable stand for their first upper bound. A wildcard
+ * {@code ? super T}, an unbounded wildcard and Object accept every value. A type variable is resolved to the
+ * erasure of its bound only, without the type arguments of the bound, so that a recursive bound like
+ * {@code T extends Comparable<T>} ends the tree. The element type of a collection and the key and value
+ * types of a map are resolved through the type parameters of Collection and Map, so they are right for
+ * subclasses that pass other type arguments, or none, to their supertypes.</p>
+ */
+final class TypeDescriptor {
+
+  private static final TypeDescriptor[] NO_ARGUMENTS = new TypeDescriptor[0];
+
+  /** The descriptor of Object, and of every type that does not restrict its values. */
+  static final TypeDescriptor ANY = new TypeDescriptor(null, NO_ARGUMENTS, null, null);
+
+  private static final FieldDescriptor[] NO_FIELDS = new FieldDescriptor[0];
+
+  /** The descriptor of every class used as a type without type arguments, shared by all its uses. */
+  private static final ClassValue<TypeDescriptor> CLASSES = new ClassValue<>() {
+    @Override
+    protected TypeDescriptor computeValue(final Class<?> type)
+    {
+      return describe(type, NO_ARGUMENTS, new HashSet<>());
+    }
+  };
+
+  private static final ClassValue<FieldDescriptor[]> FIELDS = new ClassValue<>() {
+    @Override
+    protected FieldDescriptor[] computeValue(final Class<?> type)
+    {
+      return resolveFields(type);
+    }
+  };
+
+  /** The class that every value must be an instance of, or null when any value satisfies the type. */
+  final Class<?> erasure;
+
+  /** Whether the erasure is a final class, so that only values of exactly that class satisfy it. */
+  private final boolean exact;
+
+  private final TypeDescriptor[] arguments;
+
+  /** The type of the elements of a collection or an array, or of the keys of a map. */
+  final TypeDescriptor elements;
+
+  /** The type of the values of a map. */
+  final TypeDescriptor values;
+
+  private TypeDescriptor(final Class<?> erasure, final TypeDescriptor[] arguments, final TypeDescriptor elements,
+    final TypeDescriptor values)
+  {
+    this.erasure = erasure;
+    this.exact = erasure != null && !erasure.isArray() && Modifier.isFinal(erasure.getModifiers());
+    this.arguments = arguments;
+    // While ANY itself is created, ANY is still null, so it becomes its own elements and values.
+    this.elements = elements == null ? this : elements;
+    this.values = values == null ? this : values;
+  }
+
+  /**
+   * Resolves the given type. Classes without type arguments resolve to a shared descriptor.
+   * @param type a type as returned by reflection
+   * @return the descriptor of the type
+   */
+  static TypeDescriptor of(final Type type)
+  {
+    return resolve(type, Collections.emptyMap(), new HashSet<>());
+  }
+
+  /**
+   * @param bindings the descriptors of the type variables of the class whose supertypes are resolved
+   * @param resolving the classes whose supertypes are being walked
+   */
+  private static TypeDescriptor resolve(final Type type, final Map<TypeVariable<?>, TypeDescriptor> bindings,
+    final Set<Class<?>> resolving)
+  {
+    if (type instanceof Class) {
+      return resolveClass((Class<?>) type, NO_ARGUMENTS, resolving);
+    }
+    if (type instanceof ParameterizedType) {
+      final ParameterizedType parameterized = (ParameterizedType) type;
+      final Type[] actual = parameterized.getActualTypeArguments();
+      final TypeDescriptor[] arguments = new TypeDescriptor[actual.length];
+      for (int i = 0; i < actual.length; i++) {
+        arguments[i] = resolve(actual[i], bindings, resolving);
+      }
+      return resolveClass((Class<?>) parameterized.getRawType(), arguments, resolving);
+    }
+    if (type instanceof WildcardType) {
+      final WildcardType wildcard = (WildcardType) type;
+      return wildcard.getLowerBounds().length > 0 ? ANY : resolve(wildcard.getUpperBounds()[0], bindings, resolving);
+    }
+    if (type instanceof TypeVariable) {
+      final TypeDescriptor bound = bindings.get(type);
+      return bound != null ? bound
+        : resolveClass(erasureOf(((TypeVariable<?>) type).getBounds()[0]), NO_ARGUMENTS, resolving);
+    }
+    if (type instanceof GenericArrayType) {
+      final TypeDescriptor component = resolve(((GenericArrayType) type).getGenericComponentType(), bindings,
+        resolving);
+      final Class<?> componentErasure = component.erasure == null ? Object.class : component.erasure;
+      return new TypeDescriptor(Array.newInstance(componentErasure, 0).getClass(), new TypeDescriptor[] {component},
+        component, ANY);
+    }
+    return ANY;
+  }
+
+  /**
+   * Returns the shared descriptor of a class without type arguments, unless the supertypes of a class are
+   * being walked, since that class may be the one whose shared descriptor is being computed.
+   */
+  private static TypeDescriptor resolveClass(final Class<?> raw, final TypeDescriptor[] arguments,
+    final Set<Class<?>> resolving)
+  {
+    return arguments.length == 0 && resolving.isEmpty() ? CLASSES.get(raw) : describe(raw, arguments, resolving);
+  }
+
+  /**
+   * Creates the descriptor of the given class with the given type arguments. The element type of a
+   * collection, and the key and value types of a map, are the type arguments that the class passes to the
+   * type parameters of Collection and Map, so they are found for {@code class Names extends
+   * ArrayList<String>} as well as for {@code List<String>}. A class that is met again while its own
+   * supertypes are walked, as in {@code class Tree extends ArrayList<Tree>}, gets no element type there.
+   */
+  private static TypeDescriptor describe(final Class<?> raw, final TypeDescriptor[] arguments,
+    final Set<Class<?>> resolving)
+  {
+    if (raw == Object.class) {
+      return ANY;
+    }
+    if (raw.isArray()) {
+      final Class<?> component = raw.getComponentType();
+      if (component.isPrimitive()) {
+        return new TypeDescriptor(raw, NO_ARGUMENTS, ANY, ANY);
+      }
+      final TypeDescriptor elements = resolveClass(component, NO_ARGUMENTS, resolving);
+      return new TypeDescriptor(raw, new TypeDescriptor[] {elements}, elements, ANY);
+    }
+
+    TypeDescriptor elements = ANY;
+    TypeDescriptor values = ANY;
+    if (resolving.add(raw)) {
+      try {
+        if (Collection.class.isAssignableFrom(raw)) {
+          final TypeDescriptor[] resolved = argumentsOf(Collection.class, raw, arguments, resolving);
+          if (resolved != null) {
+            elements = resolved[0];
+          }
+        } else if (Map.class.isAssignableFrom(raw)) {
+          final TypeDescriptor[] resolved = argumentsOf(Map.class, raw, arguments, resolving);
+          if (resolved != null) {
+            elements = resolved[0];
+            values = resolved[1];
+          }
+        }
+      } finally {
+        resolving.remove(raw);
+      }
+    }
+    return new TypeDescriptor(raw, arguments, elements, values);
+  }
+
+  /**
+   * Walks the supertypes of the given class, which has the given type arguments, up to the target class.
+   * @return the type arguments that the class passes to the target class, or null when it is used raw
+   */
+  private static TypeDescriptor[] argumentsOf(final Class<?> target, final Class<?> raw,
+    final TypeDescriptor[] arguments, final Set<Class<?>> resolving)
+  {
+    final TypeVariable<?>[] parameters = raw.getTypeParameters();
+    if (raw == target) {
+      return arguments.length == parameters.length ? arguments : null;
+    }
+    final Map<TypeVariable<?>, TypeDescriptor> bindings = new HashMap<>();
+    if (arguments.length == parameters.length) {
+      for (int i = 0; i < parameters.length; i++) {
+        bindings.put(parameters[i], arguments[i]);
+      }
+    }
+
+    final List<Type> supertypes = new ArrayList<>(Arrays.asList(raw.getGenericInterfaces()));
+    if (raw.getGenericSuperclass() != null) {
+      supertypes.add(0, raw.getGenericSuperclass());
+    }
+    for (final Type supertype : supertypes) {
+      final Class<?> supertypeRaw = erasureOf(supertype);
+      if (!target.isAssignableFrom(supertypeRaw)) {
+        continue;
+      }
+      TypeDescriptor[] supertypeArguments = NO_ARGUMENTS;
+      if (supertype instanceof ParameterizedType) {
+        final Type[] actual = ((ParameterizedType) supertype).getActualTypeArguments();
+        supertypeArguments = new TypeDescriptor[actual.length];
+        for (int i = 0; i < actual.length; i++) {
+          supertypeArguments[i] = resolve(actual[i], bindings, resolving);
+        }
+      }
+      final TypeDescriptor[] resolved = argumentsOf(target, supertypeRaw, supertypeArguments, resolving);
+      if (resolved != null) {
+        return resolved;
+      }
+    }
+    return null;
+  }
+
+  private static Class<?> erasureOf(final Type type)
+  {
+    if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    }
+    if (type instanceof TypeVariable) {
+      return erasureOf(((TypeVariable<?>) type).getBounds()[0]);
+    }
+    return type instanceof Class ? (Class<?>) type : Object.class;
+  }
+
+  /**
+   * Returns the fields of the given class and its superclasses that can reference other objects, with
+   * their declared types resolved. The result is computed once per class and must not be modified.
+   * @param type the class whose fields to return
+   * @return the fields, those of the class itself first
+   */
+  static FieldDescriptor[] fieldsOf(final Class<?> type)
+  {
+    return FIELDS.get(type);
+  }
+
+  /**
+   * @param type the class that declares or inherits the field
+   * @param name the name of the field
+   * @return the position of the field in {@link #fieldsOf(Class)}, or -1 if there is no such field
+   */
+  static int fieldIndex(final Class<?> type, final String name)
+  {
+    final FieldDescriptor[] fields = FIELDS.get(type);
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].field.getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static FieldDescriptor[] resolveFields(final Class<?> type)
+  {
+    final List<FieldDescriptor> fields = new ArrayList<>();
+    for (Class<?> declaring = type; declaring != null && declaring != Object.class;
+      declaring = declaring.getSuperclass()) {
+      for (final Field field : declaring.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive() && makeAccessible(field)) {
+          fields.add(new FieldDescriptor(field, of(field.getGenericType())));
+        }
+      }
+    }
+    return fields.isEmpty() ? NO_FIELDS : fields.toArray(NO_FIELDS);
+  }
+
+  private static boolean makeAccessible(final Field field)
+  {
+    try {
+      field.setAccessible(true);
+      return true;
+    } catch (RuntimeException ex) {
+      // Fields of classes in modules that are not open to this one cannot be read, so they are skipped.
+      return false;
+    }
+  }
+
+  /**
+   * @param value a value of a field, or an element of a collection, a map or an array
+   * @return true when the value is null or satisfies this type
+   */
+  boolean accepts(final Object value)
+  {
+    return value == null || this.erasure == null
+      || (this.exact ? value.getClass() == this.erasure : this.erasure.isInstance(value));
+  }
+
+  @Override
+  public String toString()
+  {
+    if (this.erasure == null) {
+      return "?";
+    }
+    if (this.erasure.isArray()) {
+      return this.elements + "[]";
+    }
+    final StringBuilder text = new StringBuilder(this.erasure.getName());
+    for (int i = 0; i < this.arguments.length; i++) {
+      text.append(i == 0 ? '<' : ',').append(this.arguments[i]);
+    }
+    return this.arguments.length == 0 ? text.toString() : text.append('>').toString();
+  }
+
+  /**
+   * A field that can reference other objects, with its declared type resolved.
+   */
+  static final class FieldDescriptor {
+
+    final Field field;
+
+    final TypeDescriptor type;
+
+    FieldDescriptor(final Field field, final TypeDescriptor type)
+    {
+      this.field = field;
+      this.type = type;
+    }
+
+    Object get(final Object owner)
+    {
+      try {
+        return this.field.get(owner);
+      } catch (IllegalAccessException ex) {
+        // Cannot happen because the field was made accessible when it was resolved.
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
+}
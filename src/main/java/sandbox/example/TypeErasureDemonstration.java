@@ -1,10 +1,16 @@
 package sandbox.example;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This class highlights how type erasure happens on collections in the JVM runtime and what happens when
@@ -17,19 +23,65 @@ import java.util.List;
  */
 public class TypeErasureDemonstration {
 
+  /**
+   * The strings field resolved once when the class is loaded. Because it is a static final constant, the
+   * JIT compiler can fold the field access into a plain field read.
+   */
+  private static final VarHandle STRINGS_HANDLE;
+
+  static {
+    try {
+      STRINGS_HANDLE = MethodHandles.lookup()
+        .findVarHandle(TypeErasureDemonstration.class, "strings", List.class);
+    } catch (NoSuchFieldException | IllegalAccessException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  /** The explanation printed when a method is invoked on the wrong type of object, parsed only once. */
+  private static final MessageTemplate INVALID_INVOCATION_MESSAGE = MessageTemplate.compile(
+    "%s: Tried to invoke method '%s' on object '%s', but '%s' is not a valid method for an "
+      + "object of type '%s', so that's what causes this %s exception");
+
   final List<String> strings;
 
-  private TypeErasureDemonstration()
+  private final OutputSink out;
+
+  TypeErasureDemonstration()
+  {
+    this(new ArrayList<>());
+  }
+
+  /**
+   * Creates an instance backed by the given strings collection, for example a {@link CheckedStringList}
+   * that rejects the Integer type value as soon as {@link #neverDoThis()} tries to insert it.
+   * @param strings the strings collection for this instance
+   */
+  TypeErasureDemonstration(final List<String> strings)
   {
-    this.strings = new ArrayList<>();
+    this(strings, OutputSink.STANDARD_OUT);
+  }
+
+  /**
+   * Creates an instance backed by the given strings collection that prints its explanations to the given
+   * sink instead of directly to {@link System#out}.
+   * @param strings the strings collection for this instance
+   * @param out the destination of the explanations printed by this instance
+   */
+  TypeErasureDemonstration(final List<String> strings, final OutputSink out)
+  {
+    this.strings = strings;
+    this.out = out;
   }
 
   /**
    * The worst possible use of reflection. Reflection is a powerful and useful tool, but should never be
    * used for the purposes of what's being demonstrated here.
    */
-  private void neverDoThis()
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  void neverDoThis()
   {
+    final DemonstrationEvents.Injection event = DemonstrationEvents.beginInjection();
     try {
       /*
        * Everything about these two lines is a horrible code smell, but this code demonstrates the power
@@ -42,10 +94,32 @@ public class TypeErasureDemonstration {
        * example application, those exceptions will never be thrown. This code will execute flawlessly.
        */
       final Field localStrings = TypeErasureDemonstration.class.getDeclaredField("strings");
-      ((List) localStrings.get(this)).add(5);
+      final List injected = (List) localStrings.get(this);
+      final int index = injected.size();
+      injected.add(5);
+      DemonstrationMetrics.get().recordInjection();
+      ViolationRecorder.get().record(injected, index, 5);
     } catch (NoSuchFieldException | IllegalAccessException ex) {
-      ex.printStackTrace();
+      ErasureDiagnostics.report(ex, "strings");
     }
+    DemonstrationEvents.commit(event, this.strings, "Field");
+  }
+
+  /**
+   * The same abuse of reflection as {@link #neverDoThis()}, but the strings field is looked up only once
+   * through a {@link VarHandle} instead of on every invocation. The Integer type value still ends up in the
+   * strings collection because the handle, just like the Field, only knows the erased List type.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  void neverDoThisWithHandle()
+  {
+    final DemonstrationEvents.Injection event = DemonstrationEvents.beginInjection();
+    final List injected = (List) STRINGS_HANDLE.get(this);
+    final int index = injected.size();
+    injected.add(5);
+    DemonstrationMetrics.get().recordInjection();
+    ViolationRecorder.get().record(injected, index, 5);
+    DemonstrationEvents.commit(event, this.strings, "VarHandle");
   }
 
   /**
@@ -55,8 +129,11 @@ public class TypeErasureDemonstration {
    * and flag all instances of trying to invoke an invalid method name on a specific type of object at
    * compilation time.</p>
    */
-  private void dontDoThisEither()
+  void dontDoThisEither()
   {
+    final DemonstrationEvents.Invocation event = DemonstrationEvents.beginInvocation();
+    boolean succeeded = false;
+
     // This is a totally valid method to invoke on a String type object.
     final String methodName = "length";
 
@@ -64,7 +141,7 @@ public class TypeErasureDemonstration {
      * Note that we can easily access the actual Integer object here in the code by referencing its position in
      * the strings collection, but we have to make it an Object type of reference. If we try to define it as a
      * String type of object here, a ClassCastException will be thrown. We don't want to do that here because
-     * that particular type of casting exception will actually be shown later on at line 172 in the
+     * that particular type of casting exception will actually be shown later on in the for loop of the
      * getReverseStringsValue method further below in the code. This particular reference here helps to show
      * what happens when an assumption is made about the object type that is returned, and as a consequence,
      * an invalid method is invoked on that object.
@@ -80,29 +157,69 @@ public class TypeErasureDemonstration {
        * type checking helps us to avoid these types of runtime problems.
        */
       lengthMethod.invoke(fourthElementOfStringsList);
+      succeeded = true;
     } catch (IllegalArgumentException ex) {
-      final String thrownExceptionName = ex.getClass().getSimpleName();
-
-      /*
-       * This line shows that the runtime system (the JVM) maintains type information of Java objects on the
-       * heap, but it does not reinforce rules of which methods are callable on the specific object type until
-       * execution time.
-       */
-      final String nameOfWrongClass = fourthElementOfStringsList.getClass().getCanonicalName();
-      System.out.println(
-        String.format("%s: Tried to invoke method '%s' on object '%s', but '%s' is not a valid method for an "
-            + "object of type '%s', so that's what causes this %s exception", thrownExceptionName, methodName,
-          fourthElementOfStringsList, methodName, nameOfWrongClass, thrownExceptionName)
-      );
+      DemonstrationMetrics.get().recordIllegalArgumentException();
+      reportInvalidInvocation(ex.getClass().getSimpleName(), methodName, fourthElementOfStringsList);
     } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
-      ex.printStackTrace();
+      ErasureDiagnostics.report(ex, methodName);
     }
+    DemonstrationEvents.commit(event, this.strings, "Method", fourthElementOfStringsList, succeeded);
+  }
+
+  /**
+   * The same invalid invocation as {@link #dontDoThisEither()}, but through an invoker that was linked once
+   * by the {@link InvokerCache}. The invoker checks the type of the receiver before the call, so the Integer
+   * type object is detected without an IllegalArgumentException being thrown, and the valid case neither
+   * allocates nor boxes the int result.
+   */
+  void dontDoThisEitherWithCache()
+  {
+    final DemonstrationEvents.Invocation event = DemonstrationEvents.beginInvocation();
+    final InvokerCache.IntInvoker lengthInvoker = InvokerCache.STRING_LENGTH;
+    final Object fourthElementOfStringsList = this.strings.get(3);
+
+    final boolean succeeded = lengthInvoker.accepts(fourthElementOfStringsList);
+    if (succeeded) {
+      lengthInvoker.applyAsInt(fourthElementOfStringsList);
+    } else {
+      DemonstrationMetrics.get().recordTypeViolation();
+      reportInvalidInvocation(IllegalArgumentException.class.getSimpleName(), lengthInvoker.methodName(),
+        fourthElementOfStringsList);
+    }
+    DemonstrationEvents.commit(event, this.strings, "Invoker", fourthElementOfStringsList, succeeded);
+  }
+
+  /**
+   * Prints the explanation of why the given method cannot be invoked on the given object. With
+   * {@link ErasureDiagnostics} enabled, the failure is only counted and nothing is formatted or printed.
+   * @param thrownExceptionName the simple name of the exception that the invocation causes
+   * @param methodName the name of the method that was invoked
+   * @param wrongObject the object that the method was invoked on
+   */
+  private void reportInvalidInvocation(final String thrownExceptionName, final String methodName,
+    final Object wrongObject)
+  {
+    if (ErasureDiagnostics.isEnabled()) {
+      ErasureDiagnostics.record(ErasureDiagnostics.Failure.ILLEGAL_ARGUMENT, methodName, wrongObject, methodName,
+        wrongObject.getClass().getName());
+      return;
+    }
+
+    /*
+     * This line shows that the runtime system (the JVM) maintains type information of Java objects on the
+     * heap, but it does not reinforce rules of which methods are callable on the specific object type until
+     * execution time.
+     */
+    final String nameOfWrongClass = wrongObject.getClass().getCanonicalName();
+    this.out.println(INVALID_INVOCATION_MESSAGE.format(thrownExceptionName, methodName, wrongObject, methodName,
+      nameOfWrongClass, thrownExceptionName));
   }
 
   /**
    * Adds values to the strings collection for this instance.
    */
-  private void initializeStrings()
+  void initializeStrings()
   {
     this.strings.add("string value 1");
     this.strings.add("string value 2");
@@ -136,23 +253,55 @@ public class TypeErasureDemonstration {
    * collection for this object.
    * @return a list of all values in the strings collection for this object
    */
-  private String getStringsValue()
+  String getStringsValue()
   {
-    final StringBuilder stringBuilder = new StringBuilder("The Strings collection value is: [");
+    final DemonstrationEvents.Render event = DemonstrationEvents.beginRender();
+    final long start = System.nanoTime();
+    final List<String> strings = this.stringsToRender();
+
+    // Sized up front so the builder does not grow by repeated array copies for large collections.
+    final StringBuilder stringBuilder
+      = new StringBuilder(StringsRenderer.capacityFor(StringsRenderer.STRINGS_VALUE_PREFIX, strings))
+      .append(StringsRenderer.STRINGS_VALUE_PREFIX);
 
     /*
      * This method works fine and throws no exceptions, but only because we treat each element of
      * the strings collection as an Object type instead of a String type. This works, but it does
      * not conform with the List<String> definition of the strings class attribute.
      */
-    for (final Object value : this.strings) {
+    for (final Object value : strings) {
       stringBuilder.append("'").append(value).append("', ");
     }
 
     final int lastCommaPosition = stringBuilder.lastIndexOf(",");
     // Removes the final ", " sequence from the StringBuilder instance.
     stringBuilder.delete(lastCommaPosition, lastCommaPosition + 2);
-    return stringBuilder.append(']').toString();
+    final String stringsValue = stringBuilder.append(']').toString();
+    DemonstrationMetrics.get().recordStringsValueLatency(System.nanoTime() - start);
+    DemonstrationEvents.commit(event, strings, "getStringsValue", stringsValue);
+    return stringsValue;
+  }
+
+  /**
+   * Writes the same list of all values in the strings collection for this object that
+   * {@link #getStringsValue()} returns, but directly to the given destination without building a String.
+   * @param out the destination of the list of all values in the strings collection
+   * @throws IOException if the destination cannot be written to
+   */
+  void writeStringsValue(final Appendable out) throws IOException
+  {
+    StringsRenderer.writeStringsValue(this.stringsToRender(), out);
+  }
+
+  /**
+   * Writes the same list of all values in the strings collection for this object that
+   * {@link #getStringsValue()} returns to the given channel, encoded as UTF-8.
+   * @param channel the destination of the list of all values in the strings collection
+   * @throws IOException if the channel cannot be written to
+   */
+  void writeStringsValue(final WritableByteChannel channel) throws IOException
+  {
+    StringsRenderer.writeStringsValue(this.stringsToRender(), channel);
   }
 
   /**
@@ -160,58 +309,156 @@ public class TypeErasureDemonstration {
    * strings collection for this object.
    * @return a list of all reversed String type values in the strings collection for this object
    */
-  private String getReverseStringsValue()
+  String getReverseStringsValue()
   {
-    final StringBuilder stringBuilder
-      = new StringBuilder("The Strings collection with values in reverse order is: ['");
+    return this.getReverseStringsValue(this.stringsToRender());
+  }
 
-    /*
-     * This is the point where we expect a ClassCastException (a specific type of runtime exception)
-     * to be thrown when the element of the strings collection that is an Integer type is encountered.
-     */
-    for (final String value : this.strings) {
-      stringBuilder
-        .append("'")
-        .append(new StringBuilder(value).reverse().toString())
-        .append("', ");
+  /**
+   * Generates the list of all reversed String type values of {@link #getReverseStringsValue()} from the given
+   * strings collection, which is the strings collection for this object or a snapshot of it.
+   * @param strings the strings collection to render
+   * @return a list of all reversed String type values in the given strings collection
+   */
+  private String getReverseStringsValue(final List<String> strings)
+  {
+    final DemonstrationEvents.Render event = DemonstrationEvents.beginRender();
+    final long start = System.nanoTime();
+    String reverseStringsValue = null;
+    try {
+      /*
+       * Sized up front so the builder does not grow by repeated array copies for large collections. The
+       * sizing pass treats every element as an Object, so the ClassCastException still happens in the loop.
+       */
+      final StringBuilder stringBuilder = new StringBuilder(
+        StringsRenderer.capacityFor(StringsRenderer.REVERSE_STRINGS_VALUE_PREFIX, strings))
+        .append(StringsRenderer.REVERSE_STRINGS_VALUE_PREFIX);
+
+      /*
+       * This is the point where we expect a ClassCastException (a specific type of runtime exception)
+       * to be thrown when the element of the strings collection that is an Integer type is encountered.
+       */
+      for (final String value : strings) {
+        // Reverses straight into the output so that no temporary objects are created per element.
+        StringsRenderer.appendReversed(stringBuilder.append("'"), value).append("', ");
+      }
+
+      final int lastCommaPosition = stringBuilder.lastIndexOf(",");
+      // Removes the final ", " sequence from the StringBuilder instance.
+      stringBuilder.delete(lastCommaPosition, lastCommaPosition + 2);
+      reverseStringsValue = stringBuilder.append(']').toString();
+      return reverseStringsValue;
+    } catch (ClassCastException ex) {
+      DemonstrationMetrics.get().recordClassCastException();
+      throw ex;
+    } finally {
+      // Also records the renderings that fail with the ClassCastException described above.
+      DemonstrationMetrics.get().recordReverseStringsValueLatency(System.nanoTime() - start);
+      DemonstrationEvents.commit(event, strings, "getReverseStringsValue", reverseStringsValue);
     }
+  }
 
-    final int lastCommaPosition = stringBuilder.lastIndexOf(",");
-    // Removes the final ", " sequence from the StringBuilder instance.
-    stringBuilder.delete(lastCommaPosition, lastCommaPosition + 2);
-    return stringBuilder.append(']').toString();
+  /**
+   * Generates a list of all reversed values in the strings collection for this object in a single pass,
+   * handling values that are not String type values according to the given policy instead of failing with
+   * a ClassCastException halfway through the collection.
+   * @param policy what to do with values that are not String type values
+   * @return a list of all reversed values in the strings collection for this object
+   */
+  String getReverseStringsValue(final PollutionPolicy policy)
+  {
+    return this.getReverseStringsValue(policy, (value, index) -> { });
+  }
+
+  /**
+   * Generates a list of all reversed values in the strings collection for this object in a single pass,
+   * handling values that are not String type values according to the given policy instead of failing with
+   * a ClassCastException halfway through the collection.
+   * @param policy what to do with values that are not String type values
+   * @param pollutedElements receives every value left out by {@link PollutionPolicy#COLLECT}, along with its
+   *   position in the strings collection
+   * @return a list of all reversed values in the strings collection for this object
+   */
+  String getReverseStringsValue(final PollutionPolicy policy, final ObjIntConsumer<Object> pollutedElements)
+  {
+    return StringsRenderer.renderReverse(this.stringsToRender(), policy, pollutedElements);
+  }
+
+  /**
+   * Generates the same list of all reversed String type values as {@link #getReverseStringsValue()}, but
+   * renders large collections in parallel on the common fork/join pool.
+   * @return a list of all reversed String type values in the strings collection for this object
+   */
+  String getReverseStringsValueInParallel()
+  {
+    return this.getReverseStringsValueInParallel(ForkJoinPool.commonPool(), StringsRenderer.PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Generates the same list of all reversed String type values as {@link #getReverseStringsValue()}, but
+   * renders the collection in parallel on the given pool once it holds at least the given number of
+   * elements. Smaller collections are rendered sequentially.
+   * @param pool the pool that renders the collection in parallel
+   * @param threshold the smallest collection size that is rendered in parallel
+   * @return a list of all reversed String type values in the strings collection for this object
+   */
+  String getReverseStringsValueInParallel(final ForkJoinPool pool, final int threshold)
+  {
+    final List<String> strings = this.stringsToRender();
+    if (strings.isEmpty() || strings.size() < threshold) {
+      return this.getReverseStringsValue(strings);
+    }
+    return StringsRenderer.renderReverseInParallel(strings, pool);
+  }
+
+  /**
+   * Returns the strings collection for a rendering to read. For a {@link SnapshotList}, that is its current
+   * version, so that the rendering sees one consistent list even while other threads add to it.
+   * @return the strings collection, or an immutable snapshot of it
+   */
+  private List<String> stringsToRender()
+  {
+    return this.strings instanceof SnapshotList ? ((SnapshotList<String>) this.strings).snapshot() : this.strings;
   }
 
   /**
    * A simple entry point for this program to begin execution.
    * @param args an array of String type values from the command line; not used for this application
+   * @throws IOException if the output cannot be written
    */
-  public static void main(final String[] args)
+  public static void main(final String[] args) throws IOException
   {
-    final TypeErasureDemonstration example = new TypeErasureDemonstration();
-    example.initializeStrings();
-
     /*
-     * This method invocation helps show that String and Integer types coexist in the strings
-     * collection instance.
+     * The output goes through a sink with its own writer thread, so that the demonstration never waits
+     * for the console. Closing the sink writes out everything that is still queued, even when the
+     * ClassCastException below ends the program.
      */
-    System.out.println(example.getStringsValue());
+    try (AsyncOutputSink out = AsyncOutputSink.toStandardOut(AsyncOutputSink.FlushPolicy.EVERY_BATCH)) {
+      final TypeErasureDemonstration example = new TypeErasureDemonstration(new ArrayList<>(), out);
+      example.initializeStrings();
 
-    /*
-     * This method invocation helps show that when non-homogeneous type objects coexist in a
-     * collection, assumptions about what methods can be invoked on those objects also cause
-     * runtime exceptions. In the situation where an object in the runtime system tries to be
-     * cast to a wrong/incompatible type, a ClassCastException is thrown by the JVM, but in
-     * the scenario where an invalid method tries to be invoked on a wrong type of object, an
-     * IllegalArgumentException is thrown by the JVM.
-     */
-    example.dontDoThisEither();
+      /*
+       * This method invocation helps show that String and Integer types coexist in the strings
+       * collection instance.
+       */
+      out.println(example.getStringsValue());
 
-    /*
-     * This method invocation shows how the Integer type value that was inserted into the strings
-     * collection breaks downstream processing based on a reasonable expectation of the type of values
-     * that should be in the collection.
-     */
-    System.out.println(example.getReverseStringsValue());
+      /*
+       * This method invocation helps show that when non-homogeneous type objects coexist in a
+       * collection, assumptions about what methods can be invoked on those objects also cause
+       * runtime exceptions. In the situation where an object in the runtime system tries to be
+       * cast to a wrong/incompatible type, a ClassCastException is thrown by the JVM, but in
+       * the scenario where an invalid method tries to be invoked on a wrong type of object, an
+       * IllegalArgumentException is thrown by the JVM.
+       */
+      example.dontDoThisEither();
+
+      /*
+       * This method invocation shows how the Integer type value that was inserted into the strings
+       * collection breaks downstream processing based on a reasonable expectation of the type of values
+       * that should be in the collection.
+       */
+      out.println(example.getReverseStringsValue());
+    }
   }
 }
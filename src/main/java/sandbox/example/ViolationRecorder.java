@@ -0,0 +1,211 @@
+package sandbox.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Records which collection, at which index, received a value of which runtime class through an erased
+ * insertion like {@link TypeErasureDemonstration#neverDoThis()}, for workloads where many threads do that
+ * at the same time.</p>
+ * <p>A single synchronized log would make every recording thread wait for every other one, so the
+ * recorder is split into stripes, and every thread always records into the stripe it is handed, round
+ * robin, the first time it records, which serves as the buffer of that thread until the stripes are read. A
+ * stripe is a ring buffer of {@value #STRIPE_CAPACITY} entries kept in parallel primitive and class
+ * arrays, so recording allocates nothing and the memory of the recorder is bounded: once a stripe is full,
+ * each entry replaces the oldest one. The stripes are only merged, in the order the entries were recorded,
+ * when {@link #violations()} is called.</p>
+ * <p>A stripe is guarded by its own monitor, which is held for a handful of array stores. With at least
+ * twice as many stripes as processors, two running threads rarely share one.</p>
+ */
+final class ViolationRecorder {
+
+  /** The number of entries kept per stripe. */
+  static final int STRIPE_CAPACITY = 1 << 10;
+
+  private static final ViolationRecorder INSTANCE
+    = new ViolationRecorder(2 * Runtime.getRuntime().availableProcessors());
+
+  private final Stripe[] stripes;
+
+  /** The number of threads that have been handed a stripe. */
+  private final AtomicInteger assigned = new AtomicInteger();
+
+  private final ThreadLocal<Stripe> stripeOfThread;
+
+  /**
+   * @param minimumStripes the smallest number of stripes, which is rounded up to a power of two
+   */
+  ViolationRecorder(final int minimumStripes)
+  {
+    final int stripeCount = minimumStripes <= 1 ? 1 : Integer.highestOneBit(minimumStripes - 1) << 1;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Stripe();
+    }
+    this.stripeOfThread = ThreadLocal.withInitial(
+      () -> this.stripes[this.assigned.getAndIncrement() & (stripeCount - 1)]);
+  }
+
+  /**
+   * @return the recorder of the violations of every demonstration instance in this JVM
+   */
+  static ViolationRecorder get()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Records that the given collection received the given value at the given index.
+   * @param collection the collection that the value was inserted into
+   * @param index the position of the value in the collection, which is the size of the collection just
+   *   before the insertion and is only exact when no other thread adds to the collection at the same time
+   * @param value the value of the wrong type
+   */
+  void record(final Object collection, final int index, final Object value)
+  {
+    this.stripeOfThread.get().record(System.nanoTime(), collection, index, value);
+  }
+
+  /**
+   * @return the number of violations recorded so far, including those no longer kept
+   */
+  long recorded()
+  {
+    long recorded = 0;
+    for (final Stripe stripe : this.stripes) {
+      synchronized (stripe) {
+        recorded += stripe.count;
+      }
+    }
+    return recorded;
+  }
+
+  /**
+   * Merges the entries that the stripes still keep.
+   * @return the kept violations, oldest first
+   */
+  List<Entry> violations()
+  {
+    final List<Entry> entries = new ArrayList<>();
+    for (final Stripe stripe : this.stripes) {
+      stripe.copyTo(entries);
+    }
+    entries.sort(Comparator.comparingLong(Entry::nanoTime));
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Forgets every recorded violation.
+   */
+  void reset()
+  {
+    for (final Stripe stripe : this.stripes) {
+      synchronized (stripe) {
+        stripe.count = 0;
+        Arrays.fill(stripe.collectionTypes, null);
+        Arrays.fill(stripe.valueTypes, null);
+      }
+    }
+  }
+
+  /**
+   * The padding before the count of a stripe, laid out like the counters of a {@link ConcurrentAppendList};
+   * see {@link ConcurrentAppendList.CounterPadding} for why, and for what the layout relies on.
+   */
+  @SuppressWarnings("unused")
+  private static class StripePadding {
+
+    private long padding0, padding1, padding2, padding3, padding4, padding5, padding6, padding7;
+  }
+
+  private static class StripeCount extends StripePadding {
+
+    /** The number of entries ever recorded in this stripe; the next one goes to this count modulo the capacity. */
+    long count;
+  }
+
+  /**
+   * One ring buffer of entries, padded so that the counters of neighbouring stripes do not share a cache
+   * line.
+   */
+  @SuppressWarnings("unused")
+  private static final class Stripe extends StripeCount {
+
+    private final long[] nanoTimes = new long[STRIPE_CAPACITY];
+
+    private final int[] collectionIds = new int[STRIPE_CAPACITY];
+
+    private final Class<?>[] collectionTypes = new Class<?>[STRIPE_CAPACITY];
+
+    private final int[] indexes = new int[STRIPE_CAPACITY];
+
+    private final Class<?>[] valueTypes = new Class<?>[STRIPE_CAPACITY];
+
+    private long padding8, padding9, padding10, padding11, padding12, padding13, padding14, padding15;
+
+    synchronized void record(final long nanoTime, final Object collection, final int index, final Object value)
+    {
+      final int slot = (int) this.count & (STRIPE_CAPACITY - 1);
+      this.nanoTimes[slot] = nanoTime;
+      this.collectionIds[slot] = System.identityHashCode(collection);
+      this.collectionTypes[slot] = collection.getClass();
+      this.indexes[slot] = index;
+      this.valueTypes[slot] = value == null ? null : value.getClass();
+      this.count++;
+    }
+
+    synchronized void copyTo(final List<Entry> entries)
+    {
+      final long first = Math.max(0, this.count - STRIPE_CAPACITY);
+      for (long entry = first; entry < this.count; entry++) {
+        final int slot = (int) entry & (STRIPE_CAPACITY - 1);
+        entries.add(new Entry(this.nanoTimes[slot], this.collectionIds[slot], this.collectionTypes[slot],
+          this.indexes[slot], this.valueTypes[slot]));
+      }
+    }
+  }
+
+  /**
+   * The entry of one recorded violation. The collection is kept as its identity hash code and class, so
+   * that the recorder does not keep collections reachable.
+   */
+  static final class Entry {
+
+    private final long nanoTime;
+
+    final int collectionId;
+
+    final Class<?> collectionType;
+
+    final int index;
+
+    final Class<?> valueType;
+
+    Entry(final long nanoTime, final int collectionId, final Class<?> collectionType, final int index,
+      final Class<?> valueType)
+    {
+      this.nanoTime = nanoTime;
+      this.collectionId = collectionId;
+      this.collectionType = collectionType;
+      this.index = index;
+      this.valueType = valueType;
+    }
+
+    /** @return the value of {@link System#nanoTime()} when the violation was recorded */
+    long nanoTime()
+    {
+      return this.nanoTime;
+    }
+
+    @Override
+    public String toString()
+    {
+      return this.collectionType.getName() + '@' + Integer.toHexString(this.collectionId) + '[' + this.index
+        + "] = " + (this.valueType == null ? "null" : this.valueType.getName());
+    }
+  }
+}
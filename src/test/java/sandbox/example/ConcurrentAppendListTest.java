@@ -0,0 +1,113 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentAppendListTest {
+
+  @Test
+  void matchesArrayListUnderRandomOperations()
+  {
+    // Nothing but adding is supported, so the operations only add, read and compare.
+    final ConcurrentAppendList<Object> list = new ConcurrentAppendList<>();
+    ListContract.assertMatchesArrayList(list, new Random(22), 5_000, random -> {
+      final int kind = random.nextInt(10);
+      return kind == 0 ? null : kind == 1 ? (Object) random.nextInt() : ListContract.randomString(random);
+    }, null, false);
+    ListContract.assertRejectsPositionsOutside(list);
+  }
+
+  @Test
+  void keepsElementsAcrossChunks()
+  {
+    final ConcurrentAppendList<Integer> list = new ConcurrentAppendList<>();
+    final int count = 16 * ConcurrentAppendList.FIRST_CHUNK_SIZE;
+    for (int i = 0; i < count; i++) {
+      list.add(i);
+    }
+    assertEquals(count, list.size());
+    // A chunk ends where the index plus the size of the first chunk reaches a power of two.
+    for (int end = 2 * ConcurrentAppendList.FIRST_CHUNK_SIZE; end <= count; end <<= 1) {
+      final int last = end - ConcurrentAppendList.FIRST_CHUNK_SIZE - 1;
+      assertEquals(last, list.get(last));
+      assertEquals(last + 1, list.get(last + 1));
+    }
+    int expected = 0;
+    for (final Integer value : list) {
+      assertEquals(expected++, value);
+    }
+    assertEquals(count, expected);
+  }
+
+  @Test
+  void showsReadersAGrowingPrefixWhileProducersAdd() throws Exception
+  {
+    final int producers = 8;
+    final int elementsPerProducer = 50_000;
+    final ConcurrentAppendList<Integer> list = new ConcurrentAppendList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(producers + 1);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> added = new ArrayList<>();
+      for (int producer = 0; producer < producers; producer++) {
+        final int first = producer * elementsPerProducer;
+        added.add(executor.submit(() -> {
+          start.await();
+          for (int i = first; i < first + elementsPerProducer; i++) {
+            list.add(i);
+          }
+          return null;
+        }));
+      }
+      /*
+       * Reads while the producers add. The visible prefix only grows, a position keeps its element once it
+       * is visible, and the prefix holds the elements of each producer in the order that producer added them.
+       */
+      final Future<?> read = executor.submit(() -> {
+        start.await();
+        final List<Integer> seen = new ArrayList<>();
+        for (int pass = 0; pass < 200; pass++) {
+          final int size = list.size();
+          assertTrue(size >= seen.size(), "the prefix shrank from " + seen.size() + " to " + size);
+          for (int index = 0; index < seen.size(); index += 97) {
+            assertEquals(seen.get(index), list.get(index), "index " + index);
+          }
+          for (int index = seen.size(); index < size; index++) {
+            seen.add(list.get(index));
+          }
+        }
+        final int[] next = new int[producers];
+        for (final Integer value : seen) {
+          final int producer = value / elementsPerProducer;
+          assertEquals(producer * elementsPerProducer + next[producer]++, value);
+        }
+        return null;
+      });
+      start.countDown();
+      for (final Future<?> producer : added) {
+        producer.get();
+      }
+      read.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(producers * elementsPerProducer, list.size());
+    final Set<Integer> distinct = new HashSet<>(list);
+    assertEquals(producers * elementsPerProducer, distinct.size());
+    for (int i = 0; i < producers * elementsPerProducer; i++) {
+      assertTrue(distinct.contains(i), "missing: " + i);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HybridStringListTest {
+
+  @Test
+  void matchesArrayListUnderRandomOperations()
+  {
+    // Each replacement is of the same kind as the element it replaces, which is all the list supports.
+    ListContract.assertMatchesArrayList(new HybridStringList<>(1), new Random(18), 20_000,
+      HybridStringListTest::randomValue,
+      (random, previous) -> previous instanceof Integer ? (Object) random.nextInt() : ListContract.randomString(random),
+      true);
+  }
+
+  @Test
+  void keepsPositionsAcrossBitmapWords()
+  {
+    final HybridStringList<Object> list = new HybridStringList<>();
+    final List<Object> expected = new ArrayList<>();
+    for (int i = 0; i < 3 * Long.SIZE + 1; i++) {
+      final Object value = i % 3 == 0 ? "s" + i : (Object) i;
+      list.add(value);
+      expected.add(value);
+    }
+    for (final int index : new int[] {0, 62, 63, 64, 65, 127, 128, 129, 3 * Long.SIZE}) {
+      assertEquals(expected.get(index), list.get(index), "index " + index);
+      assertEquals(expected.get(index) instanceof Integer, list.isIntAt(index), "index " + index);
+    }
+    assertEquals(expected, list);
+  }
+
+  @Test
+  void readsIntsAndReferencesWithoutBoxing()
+  {
+    final HybridStringList<Object> list = new HybridStringList<>();
+    list.add("a");
+    list.add(5);
+    list.add(null);
+    list.add(-7);
+    assertFalse(list.isIntAt(0));
+    assertEquals("a", list.getReference(0));
+    assertTrue(list.isIntAt(1));
+    assertEquals(5, list.getInt(1));
+    assertFalse(list.isIntAt(2));
+    assertEquals(null, list.getReference(2));
+    assertEquals(-7, list.getInt(3));
+  }
+
+  @Test
+  void rejectsReplacingAnElementWithAnotherKind()
+  {
+    final HybridStringList<Object> list = new HybridStringList<>();
+    list.add("a");
+    list.add(5);
+    assertThrows(UnsupportedOperationException.class, () -> list.set(0, 6));
+    assertThrows(UnsupportedOperationException.class, () -> list.set(1, "b"));
+    ListContract.assertRejectsPositionsOutside(list);
+  }
+
+  @Test
+  void startsOverAfterClear()
+  {
+    final HybridStringList<Object> list = new HybridStringList<>();
+    for (int i = 0; i < 100; i++) {
+      list.add(i);
+    }
+    list.clear();
+    list.add("after");
+    assertEquals(List.of("after"), list);
+    assertFalse(list.isIntAt(0));
+  }
+
+  private static Object randomValue(final Random random)
+  {
+    final int kind = random.nextInt(10);
+    if (kind < 4) {
+      return random.nextInt();
+    }
+    if (kind == 4) {
+      return null;
+    }
+    return ListContract.randomString(random);
+  }
+}
@@ -0,0 +1,106 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class Latin1StringPoolTest {
+
+  private static final String[] PREFIXES = {"", "string value ", "string valué ", "\u0000ÿ", "x"};
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void matchesArrayListUnderRandomOperations(final boolean prefixCompression)
+  {
+    final Latin1StringPool pool = new Latin1StringPool(prefixCompression);
+    ListContract.assertMatchesArrayList(pool, new Random(21), 20_000, Latin1StringPoolTest::randomLatin1String, null,
+      true);
+    ListContract.assertRejectsPositionsOutside(pool);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void keepsElementsAcrossSlabs(final boolean prefixCompression)
+  {
+    final Random random = new Random(21);
+    final Latin1StringPool pool = new Latin1StringPool(prefixCompression);
+    final List<String> expected = new ArrayList<>();
+    // Long elements that share little, so that the pool needs several full slabs.
+    while (expected.size() < 10 * Latin1StringPool.SLAB_SIZE / 1000) {
+      final char[] characters = new char[random.nextInt(2000)];
+      for (int i = 0; i < characters.length; i++) {
+        characters[i] = (char) random.nextInt(0x100);
+      }
+      final String value = new String(characters);
+      pool.add(value);
+      expected.add(value);
+    }
+    final String longest = "z".repeat(Latin1StringPool.SLAB_SIZE - 6);
+    pool.add(longest);
+    expected.add(longest);
+    pool.add("after");
+    expected.add("after");
+    assertEquals(expected, pool);
+    for (int index = 0; index < expected.size(); index++) {
+      assertEquals(expected.get(index), pool.get(index), "index " + index);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void startsCursorsAtRestartPointsAndBetweenThem(final boolean prefixCompression)
+  {
+    final Latin1StringPool pool = new Latin1StringPool(prefixCompression);
+    final int count = 3 * Latin1StringPool.RESTART_INTERVAL + 1;
+    for (int i = 0; i < count; i++) {
+      pool.add("string value " + i);
+    }
+    for (int index = 0; index < count; index++) {
+      final Latin1StringPool.Cursor cursor = pool.cursor(index);
+      assertTrue(cursor.next());
+      assertEquals("string value " + index, cursor.toString());
+    }
+    final Latin1StringPool.Cursor cursor = pool.cursor(count - 1);
+    assertTrue(cursor.next());
+    assertFalse(cursor.hasNext());
+    assertFalse(cursor.next());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"ā", "世界", "😀", "\uD800", "string value Ā"})
+  void rejectsCharactersOutsideOfLatin1(final String value)
+  {
+    final Latin1StringPool pool = new Latin1StringPool();
+    pool.add("before");
+    assertThrows(IllegalArgumentException.class, () -> pool.add(value));
+    pool.add("after");
+    assertEquals(List.of("before", "after"), pool);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void rejectsNullAndTooLongElements(final boolean prefixCompression)
+  {
+    final Latin1StringPool pool = new Latin1StringPool(prefixCompression);
+    assertThrows(NullPointerException.class, () -> pool.add(null));
+    assertThrows(IllegalArgumentException.class, () -> pool.add("z".repeat(Latin1StringPool.SLAB_SIZE - 5)));
+    assertEquals(0, pool.size());
+  }
+
+  private static String randomLatin1String(final Random random)
+  {
+    final StringBuilder value = new StringBuilder(PREFIXES[random.nextInt(PREFIXES.length)]);
+    final int suffixLength = random.nextInt(4);
+    for (int i = 0; i < suffixLength; i++) {
+      value.append((char) random.nextInt(0x100));
+    }
+    return value.toString();
+  }
+}
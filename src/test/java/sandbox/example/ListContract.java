@@ -0,0 +1,89 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The part of the List contract that every strings list implementation shares with an ArrayList, checked
+ * by replaying the same seeded random operations on both. Each test class adds the tests of what is
+ * particular to its own list.
+ */
+final class ListContract {
+
+  /** Prefixes of the generated strings, including non-Latin-1 characters and a surrogate pair. */
+  private static final String[] STRINGS = {"", "string value", "café", "世界", "😀 grin"};
+
+  private ListContract()
+  {
+  }
+
+  /**
+   * @return a string from a small set of prefixes followed by a random number, so that some strings repeat
+   */
+  static String randomString(final Random random)
+  {
+    return STRINGS[random.nextInt(STRINGS.length)] + random.nextInt(1000);
+  }
+
+  /**
+   * Adds, reads, compares and, where the list supports it, replaces and clears elements of the given empty
+   * list and of an ArrayList alike, and checks after every operation that both hold the same elements.
+   * @param list the empty list to check
+   * @param random the source of the operations
+   * @param operations the number of operations
+   * @param values creates the values to add
+   * @param replacements creates the value to replace a given element with, or null if the list cannot
+   *   replace elements
+   * @param clears whether the list can be cleared
+   */
+  static <E> void assertMatchesArrayList(final List<E> list, final Random random, final int operations,
+    final Function<Random, E> values, final BiFunction<Random, E, E> replacements, final boolean clears)
+  {
+    final List<E> expected = new ArrayList<>();
+    for (int operation = 0; operation < operations; operation++) {
+      final int kind = random.nextInt(100);
+      if (kind < 60 || expected.isEmpty()) {
+        final E value = values.apply(random);
+        assertEquals(expected.add(value), list.add(value));
+      } else if (kind < 80 && replacements != null) {
+        final int index = random.nextInt(expected.size());
+        final E value = replacements.apply(random, expected.get(index));
+        assertEquals(expected.set(index, value), list.set(index, value));
+      } else if (kind < 99) {
+        final int index = random.nextInt(expected.size());
+        assertEquals(expected.get(index), list.get(index));
+      } else {
+        assertEquals(expected, list);
+        if (clears && random.nextInt(10) == 0) {
+          list.clear();
+          expected.clear();
+        }
+      }
+      assertEquals(expected.size(), list.size());
+    }
+    assertEquals(expected, list);
+    assertEquals(expected, new ArrayList<>(list));
+  }
+
+  /**
+   * Checks that the given list rejects reading before its first and after its last element.
+   */
+  static void assertRejectsPositionsOutside(final List<?> list)
+  {
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(list.size()));
+    final Iterator<?> elements = list.iterator();
+    for (int i = 0; i < list.size(); i++) {
+      elements.next();
+    }
+    assertThrows(NoSuchElementException.class, elements::next);
+  }
+}
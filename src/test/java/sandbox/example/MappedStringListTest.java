@@ -0,0 +1,115 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedStringListTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void matchesArrayListUnderRandomOperations() throws IOException
+  {
+    // Clearing rewinds the data file, so the elements added afterwards overwrite the bytes of earlier ones.
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      ListContract.assertMatchesArrayList(list, new Random(19), 20_000,
+        random -> random.nextInt(10) == 0 ? null : ListContract.randomString(random), null, true);
+      ListContract.assertRejectsPositionsOutside(list);
+    }
+  }
+
+  @Test
+  void recordsByteLengthsAndBytes() throws IOException
+  {
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      list.add("café");
+      list.add(null);
+      list.add("");
+      assertEquals(5, list.byteLengthAt(0));
+      assertEquals("café", StandardCharsets.UTF_8.decode(list.bytesAt(0)).toString());
+      assertEquals(-1, list.byteLengthAt(1));
+      assertNull(list.get(1));
+      assertEquals(0, list.byteLengthAt(2));
+      assertEquals("", list.get(2));
+    }
+  }
+
+  @Test
+  void storesUnpairedSurrogatesAsQuestionMarks() throws IOException
+  {
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      list.add("a\uD800b");
+      list.add("\uDC00");
+      list.add("😀");
+      assertEquals(List.of("a?b", "?", "😀"), list);
+    }
+  }
+
+  @Test
+  void movesAnElementThatDoesNotFitToTheNextSegment() throws IOException
+  {
+    final String half = "x".repeat(MappedStringList.SEGMENT_SIZE / 2 + 1);
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      list.add(half);
+      list.add("y" + half);
+      list.add("after");
+      assertEquals(half.length(), list.get(0).length());
+      assertEquals("y" + half, list.get(1));
+      assertEquals("after", list.get(2));
+    }
+  }
+
+  @Test
+  void rejectsAnElementLargerThanASegment() throws IOException
+  {
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      assertThrows(IllegalArgumentException.class, () -> list.add("x".repeat(MappedStringList.SEGMENT_SIZE + 1)));
+      list.add("after");
+      assertEquals(List.of("after"), list);
+    }
+  }
+
+  @Test
+  void keepsElementsAcrossIndexSegments() throws IOException
+  {
+    final int count = (1 << 20) + 2;
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      for (int i = 0; i < count; i++) {
+        list.add(Integer.toString(i));
+      }
+      for (final int index : new int[] {0, (1 << 20) - 1, 1 << 20, count - 1}) {
+        assertEquals(Integer.toString(index), list.get(index));
+      }
+    }
+  }
+
+  @Test
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  void rejectsValuesThatAreNotStrings() throws IOException
+  {
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      assertThrows(ClassCastException.class, () -> ((List) list).add(5));
+      assertEquals(0, list.size());
+    }
+  }
+
+  @Test
+  void cannotBeUsedOnceClosed() throws IOException
+  {
+    final MappedStringList list = new MappedStringList(this.directory);
+    list.add("before");
+    list.close();
+    assertThrows(IllegalStateException.class, () -> list.add("after"));
+    assertThrows(IllegalStateException.class, () -> list.get(0));
+  }
+}
@@ -0,0 +1,192 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class SnapshotListTest {
+
+  @Test
+  void matchesArrayListUnderRandomOperations()
+  {
+    final SnapshotList<Object> list = new SnapshotList<>();
+    ListContract.assertMatchesArrayList(list, new Random(23), 50_000, SnapshotListTest::randomValue,
+      (random, previous) -> randomValue(random), true);
+    ListContract.assertRejectsPositionsOutside(list);
+    assertThrows(IndexOutOfBoundsException.class, () -> list.set(list.size(), "other"));
+  }
+
+  @Test
+  void growsTheTreeAcrossLevels()
+  {
+    final int branching = SnapshotList.BRANCHING;
+    // A new leaf starts at every multiple of the branching factor, and a tree one level higher at its powers.
+    final int count = branching * branching * branching + 2 * branching + 1;
+    final SnapshotList<Integer> list = new SnapshotList<>();
+    for (int i = 0; i < count; i++) {
+      list.add(i);
+    }
+    assertEquals(count, list.size());
+    for (final int size : new int[] {branching, branching * branching, branching * branching * branching}) {
+      for (final int index : new int[] {size - 1, size, size + branching - 1, size + branching}) {
+        assertEquals(index, list.set(index, -index), "index " + index);
+        assertEquals(-index, list.get(index), "index " + index);
+      }
+    }
+    int index = 0;
+    for (final Integer value : list) {
+      assertEquals(list.get(index), value);
+      index++;
+    }
+    assertEquals(count, index);
+  }
+
+  @Test
+  void keepsEverySnapshotUnchanged()
+  {
+    final SnapshotList<String> list = new SnapshotList<>();
+    final List<SnapshotList.Snapshot<String>> snapshots = new ArrayList<>();
+    final List<List<String>> copies = new ArrayList<>();
+    for (int i = 0; i < 3 * SnapshotList.BRANCHING * SnapshotList.BRANCHING; i++) {
+      list.add("string value " + i);
+      if (i % 7 == 0) {
+        list.set(i / 2, null);
+      }
+      if (i % 97 == 0) {
+        snapshots.add(list.snapshot());
+        copies.add(new ArrayList<>(list));
+      }
+    }
+    list.clear();
+    for (int i = 0; i < snapshots.size(); i++) {
+      assertEquals(copies.get(i), snapshots.get(i));
+    }
+    assertEquals(0, list.size());
+  }
+
+  @Test
+  void keepsSnapshotsUnchangedWhileWritersReplaceElements() throws Exception
+  {
+    final int writers = 4;
+    final int positionsPerWriter = 2 * SnapshotList.BRANCHING * SnapshotList.BRANCHING;
+    final int rounds = 20;
+    final SnapshotList<Integer> list = new SnapshotList<>();
+    for (int i = 0; i < writers * positionsPerWriter; i++) {
+      list.add(0);
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> replaced = new ArrayList<>();
+      for (int writer = 0; writer < writers; writer++) {
+        final int first = writer * positionsPerWriter;
+        replaced.add(executor.submit(() -> {
+          start.await();
+          for (int round = 1; round <= rounds; round++) {
+            for (int i = first; i < first + positionsPerWriter; i++) {
+              list.set(i, round);
+            }
+          }
+          return null;
+        }));
+      }
+      /*
+       * Reads a snapshot twice, which has to give the same elements both times, and checks that no position
+       * ever goes back to an earlier round than an earlier snapshot showed.
+       */
+      final Future<?> read = executor.submit(() -> {
+        start.await();
+        List<Integer> previous = new ArrayList<>(list.snapshot());
+        for (int pass = 0; pass < 50; pass++) {
+          final SnapshotList.Snapshot<Integer> snapshot = list.snapshot();
+          final List<Integer> copy = new ArrayList<>(snapshot);
+          Thread.yield();
+          assertEquals(copy, new ArrayList<>(snapshot));
+          for (int index = 0; index < copy.size(); index++) {
+            assertTrue(copy.get(index) >= previous.get(index), "index " + index);
+          }
+          previous = copy;
+        }
+        return null;
+      });
+      start.countDown();
+      for (final Future<?> writer : replaced) {
+        writer.get();
+      }
+      read.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    // A replacement that lost the race to another writer was retried, so none of them is missing.
+    for (final Integer value : list) {
+      assertEquals(rounds, value);
+    }
+  }
+
+  @Test
+  void keepsEveryElementAddedByConcurrentWriters() throws Exception
+  {
+    final int writers = 4;
+    final int elementsPerWriter = 20_000;
+    final SnapshotList<Integer> list = new SnapshotList<>();
+    final ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<?>> added = new ArrayList<>();
+      for (int writer = 0; writer < writers; writer++) {
+        final int first = writer * elementsPerWriter;
+        added.add(executor.submit(() -> {
+          start.await();
+          for (int i = first; i < first + elementsPerWriter; i++) {
+            list.add(i);
+          }
+          return null;
+        }));
+      }
+      // Every snapshot has to hold the elements of each writer in the order that writer added them.
+      final Future<?> read = executor.submit(() -> {
+        start.await();
+        for (int pass = 0; pass < 50; pass++) {
+          final int[] next = new int[writers];
+          for (final Integer value : list.snapshot()) {
+            final int writer = value / elementsPerWriter;
+            assertEquals(writer * elementsPerWriter + next[writer]++, value);
+          }
+        }
+        return null;
+      });
+      start.countDown();
+      for (final Future<?> writer : added) {
+        writer.get();
+      }
+      read.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(writers * elementsPerWriter, list.size());
+    assertEquals(writers * elementsPerWriter, list.stream().distinct().count());
+  }
+
+  private static Object randomValue(final Random random)
+  {
+    final int kind = random.nextInt(10);
+    if (kind == 0) {
+      return null;
+    }
+    if (kind == 1) {
+      return random.nextInt();
+    }
+    return ListContract.randomString(random);
+  }
+}
@@ -0,0 +1,89 @@
+package sandbox.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StringsRendererTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void writesEmptyAndSingleElementMappedLists() throws IOException
+  {
+    assertGatheredWriteMatches(List.of());
+    assertGatheredWriteMatches(Arrays.asList((String) null));
+    assertGatheredWriteMatches(List.of("only"));
+  }
+
+  @Test
+  void writesElementsAroundTheGatherThreshold() throws IOException
+  {
+    final int threshold = StringsRenderer.GATHER_THRESHOLD;
+    final List<String> values = new ArrayList<>();
+    for (final int length : new int[] {threshold - 1, threshold, threshold + 1}) {
+      values.add("a".repeat(length));
+      values.add(null);
+      // Two bytes per character in UTF-8, so the byte length rather than the length decides.
+      values.add("é".repeat(length / 2 + 1));
+      values.add("");
+    }
+    values.add("😀".repeat(threshold));
+    assertGatheredWriteMatches(values);
+  }
+
+  @Test
+  void writesMoreThanTheStagingBufferHolds() throws IOException
+  {
+    final Random random = new Random(20);
+    final List<String> values = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      final int kind = random.nextInt(20);
+      if (kind == 0) {
+        values.add(null);
+      } else if (kind == 1) {
+        values.add("世界".repeat(random.nextInt(4 * StringsRenderer.GATHER_THRESHOLD)));
+      } else {
+        values.add("string value " + i);
+      }
+    }
+    assertGatheredWriteMatches(values);
+  }
+
+  /**
+   * Writes the values from a mapped list to a file channel, which takes the gathering path, and to a
+   * channel that does not gather, and checks both against the text the values render to.
+   */
+  private void assertGatheredWriteMatches(final List<String> values) throws IOException
+  {
+    final StringBuilder expected = new StringBuilder();
+    StringsRenderer.writeStringsValue(values, expected);
+
+    final Path file = Files.createTempFile(this.directory, "rendered", ".txt");
+    try (MappedStringList list = new MappedStringList(this.directory)) {
+      list.addAll(values);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        StringsRenderer.writeStringsValue(list, channel);
+      }
+      assertEquals(expected.toString(), Files.readString(file, StandardCharsets.UTF_8));
+
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      StringsRenderer.writeStringsValue(list, Channels.newChannel(out));
+      assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+  }
+}